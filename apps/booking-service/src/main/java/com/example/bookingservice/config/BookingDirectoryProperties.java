@@ -0,0 +1,25 @@
+package com.example.bookingservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "booking.directory")
+public record BookingDirectoryProperties(
+    @DefaultValue Cache users,
+    @DefaultValue Cache amenities
+) {
+
+    // Local cache in front of a directory lookup
+    public record Cache(
+        @DefaultValue("100000") long maxSize,
+        // Hard limit on how old a cached entry may get when no change event arrives
+        @DefaultValue("10m") Duration ttl,
+        // Entries read after this age are reloaded in the background while the old value is served
+        @DefaultValue("1m") Duration refreshAfter,
+        // How long an unknown id is remembered as unknown
+        @DefaultValue("30s") Duration negativeTtl
+    ) {
+    }
+}
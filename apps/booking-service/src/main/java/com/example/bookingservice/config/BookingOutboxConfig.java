@@ -0,0 +1,12 @@
+package com.example.bookingservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Scheduling brings in the TaskScheduler that drives OutboxRelay
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingOutboxProperties.class)
+public class BookingOutboxConfig {
+}
@@ -0,0 +1,20 @@
+package com.example.bookingservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "booking.outbox")
+public record BookingOutboxProperties(
+    // Most events published per relay round; a full batch is followed by the next one straight away
+    @DefaultValue("500") int batchSize,
+    // Pause between relay rounds once the outbox is drained
+    @DefaultValue("200ms") Duration pollInterval,
+    // How long published events are kept before they are purged
+    @DefaultValue("1h") Duration retention,
+    // How long the relay lease lasts without renewal; another instance takes over after that. Must
+    // be well above the 10s a batch may wait for acks
+    @DefaultValue("30s") Duration leaseTtl
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.bookingservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BookingRetryProperties.class)
+public class BookingRetryConfig {
+}
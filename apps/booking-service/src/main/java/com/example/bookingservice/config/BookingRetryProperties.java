@@ -0,0 +1,22 @@
+package com.example.bookingservice.config;
+
+import com.example.bookingservice.producer.BookingRetryProducer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "booking.retry")
+public record BookingRetryProperties(
+    // Back-off before each tier, in order: one entry per booking-requests-retry-N topic
+    @DefaultValue({"5s", "30s", "2m"}) List<Duration> delays
+) {
+
+    public BookingRetryProperties {
+        if (delays.size() != BookingRetryProducer.RETRY_TOPICS.size()) {
+            throw new IllegalArgumentException("booking.retry.delays needs exactly "
+                    + BookingRetryProducer.RETRY_TOPICS.size() + " entries, one per retry topic");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bookingservice.config;
+
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * Hands listeners a whole poll (up to spring.kafka.consumer.max-poll-records) as one list and
+     * commits offsets once per batch. Everything else comes from the spring.kafka.* properties.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    /**
+     * One record at a time with manual acks, so a retry listener can nack a record that is not due
+     * yet: the container pauses the partition for the remaining delay and keeps polling.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        // Retry traffic is light; one consumer per tier is enough
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * For listeners that assign themselves every partition of a topic instead of joining a group.
+     * There is no group.id and nothing is ever committed (manual acks that are never sent), so pod
+     * restarts leave no consumer groups behind on the broker. Listeners pick their start with
+     * ConsumerSeekAware.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> broadcastListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(props));
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAssignmentCommitOption(ContainerProperties.AssignmentCommitOption.NEVER);
+        return factory;
+    }
+
+    /**
+     * booking-requests as a reactive stream for ReactiveBookingConsumer, with the same consumer settings
+     * (deserializers, max-poll-records, ...) the listener containers use. Offsets are committed by the
+     * receiver for acknowledged records only.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public KafkaReceiver<String, BookingRequest> bookingRequestReceiver(ConsumerFactory<Object, Object> consumerFactory) {
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "booking-service");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return KafkaReceiver.create(ReceiverOptions.<String, BookingRequest>create(props)
+                .subscription(List.of(BookingRetryProducer.SOURCE_TOPIC)));
+    }
+}
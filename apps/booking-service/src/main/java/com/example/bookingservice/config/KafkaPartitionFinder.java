@@ -0,0 +1,35 @@
+package com.example.bookingservice.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Partition numbers of a topic, for @KafkaListener(topicPartitions = ...) listeners that read all
+ * of it, e.g. partitions = "#{@kafkaPartitionFinder.partitions('user-changes')}"
+ */
+@Component
+public class KafkaPartitionFinder {
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+
+    public KafkaPartitionFinder(ConsumerFactory<Object, Object> consumerFactory) {
+        this.consumerFactory = consumerFactory;
+    }
+
+    public String[] partitions(String topic) {
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+            if (partitions == null || partitions.isEmpty()) {
+                // Not created yet: partition 0 is what the broker makes on first use
+                return new String[] {"0"};
+            }
+            return partitions.stream()
+                    .map(partition -> String.valueOf(partition.partition()))
+                    .toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bookingservice.config;
+
+import com.example.bookingservice.consumer.DirectoryChangeConsumer;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import com.example.bookingservice.service.BookingOutbox;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // Same partition count as booking-requests, so retried records keep their key's partition number
+    @Value("${kafka.topics.booking-requests.partitions:6}")
+    private int bookingRequestsPartitions;
+
+    @Bean
+    public KafkaAdmin.NewTopics bookingRetryTopics() {
+        NewTopic[] topics = new NewTopic[BookingRetryProducer.RETRY_TOPICS.size() + 1];
+        for (int i = 0; i < BookingRetryProducer.RETRY_TOPICS.size(); i++) {
+            topics[i] = topic(BookingRetryProducer.RETRY_TOPICS.get(i));
+        }
+        topics[topics.length - 1] = topic(BookingRetryProducer.DLT_TOPIC);
+        return new KafkaAdmin.NewTopics(topics);
+    }
+
+    // catalog-service rebuilds its availability index from the whole topic on every start, so nothing
+    // may age out; keyed by amenity, so the partition count caps consumer parallelism
+    @Bean
+    public NewTopic bookingEventsTopic(@Value("${kafka.topics.booking-events.partitions:6}") int partitions) {
+        return TopicBuilder.name(BookingOutbox.TOPIC)
+                .partitions(partitions)
+                .replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "-1")
+                .build();
+    }
+
+    // Low-volume invalidation events; every pod reads all of them anyway
+    @Bean
+    public KafkaAdmin.NewTopics directoryChangeTopics() {
+        return new KafkaAdmin.NewTopics(
+                TopicBuilder.name(DirectoryChangeConsumer.USER_CHANGES_TOPIC).partitions(1).replicas(1).build(),
+                TopicBuilder.name(DirectoryChangeConsumer.AMENITY_CHANGES_TOPIC).partitions(1).replicas(1).build());
+    }
+
+    private NewTopic topic(String name) {
+        return TopicBuilder.name(name)
+                .partitions(bookingRequestsPartitions)
+                .replicas(1)  // Single replica for single broker
+                .build();
+    }
+}
@@ -1,33 +1,121 @@
 package com.example.bookingservice.consumer;
 
+import com.example.bookingservice.dto.BookingCommand;
 import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.producer.BookingRetryProducer;
 import com.example.bookingservice.service.BookingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingConsumer {
     private static final Logger logger = LoggerFactory.getLogger(BookingConsumer.class);
+    private static final LogAccessor LOG = new LogAccessor(BookingConsumer.class);
+    // Headers catalog-service sets on booking-requests records
+    static final String IDEMPOTENCY_KEY_HEADER = "idempotency-key";
+    static final String REQUEST_ID_HEADER = "request-id";
     
     private final BookingService bookingService;
+    private final BookingWorkerPool workerPool;
+    private final BookingRetryProducer retryProducer;
     
-    public BookingConsumer(BookingService bookingService) {
+    public BookingConsumer(BookingService bookingService, BookingWorkerPool workerPool,
+                           BookingRetryProducer retryProducer) {
         this.bookingService = bookingService;
+        this.workerPool = workerPool;
+        this.retryProducer = retryProducer;
     }
     
-    @KafkaListener(topics = "booking-requests", groupId = "booking-service")
-    public void consumeBookingRequest(BookingRequest request) {
+    /**
+     * Receives a whole poll at once; offsets for the batch are committed after this returns.
+     * The batch is split into one lane per amenity: each amenity's requests are handled in
+     * partition order, different amenities in parallel on the worker pool.
+     *
+     * A lane that fails for a reason other than a rejected booking is handed to the retry topics
+     * rather than retried here, so one bad record cannot hold up the partition.
+     */
+    @KafkaListener(topics = BookingRetryProducer.SOURCE_TOPIC, groupId = "booking-service",
+            containerFactory = "batchListenerContainerFactory")
+    public void consumeBookingRequests(List<ConsumerRecord<String, BookingRequest>> records) {
+        List<ConsumerRecord<String, BookingRequest>> decoded = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, BookingRequest> record : records) {
+            if (record.value() != null) {
+                decoded.add(record);
+            } else {
+                deadLetterIfUndecodable(record, retryProducer);
+            }
+        }
+        logger.info("Processing batch of {} booking requests", decoded.size());
+        int created = workerPool.runByKey(decoded, record -> record.value().amenityId(), this::processLane).size();
+        logger.info("Created {} bookings from batch of {} records", created, records.size());
+    }
+
+    private List<Booking> processLane(List<ConsumerRecord<String, BookingRequest>> lane) {
+        List<BookingCommand> commands = new ArrayList<>(lane.size());
+        for (ConsumerRecord<String, BookingRequest> record : lane) {
+            commands.add(toCommand(record));
+        }
         try {
-            logger.info("Received booking request from Kafka: {}", request);
-            
-            logger.info("Processing booking for user: {}, amenity: {}", request.userId(), request.amenityId());
-            bookingService.createBooking(request.userId(), request.amenityId(), request.startTime(), request.endTime());
-            
-            logger.info("Successfully processed booking for user: {}, amenity: {}", request.userId(), request.amenityId());
-        } catch (Exception e) {
-            logger.error("Failed to process booking request: {}", e.getMessage(), e);
+            return bookingService.createBookingsIfAbsent(commands);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to process {} booking requests, sending them to retry: {}", lane.size(), e.getMessage());
+            // Requests that did get through are recognised by their request key on the next attempt
+            for (ConsumerRecord<String, BookingRequest> record : lane) {
+                retryProducer.retry(record, record.value(), e);
+            }
+            return List.of();
+        }
+    }
+
+    static BookingCommand toCommand(ConsumerRecord<String, BookingRequest> record) {
+        BookingRequest request = record.value();
+        return new BookingCommand(
+                requestKey(request, headerValue(record, IDEMPOTENCY_KEY_HEADER), headerValue(record, REQUEST_ID_HEADER)),
+                request.userId(), request.amenityId(), request.startTime(), request.endTime());
+    }
+
+    /**
+     * A null value is either a tombstone or, with ErrorHandlingDeserializer in front of
+     * BookingRequestDeserializer, a value that could not be decoded. The latter goes to the dead-letter topic as is.
+     */
+    static void deadLetterIfUndecodable(ConsumerRecord<String, BookingRequest> record, BookingRetryProducer retryProducer) {
+        DeserializationException failure = SerializationUtils.getExceptionFromHeader(
+                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG);
+        if (failure != null) {
+            retryProducer.deadLetter(record, failure.getData(), failure);
+        }
+    }
+
+    static byte[] headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : header.value();
+    }
+
+    /**
+     * Client idempotency keys are scoped to the user, so two users picking the same key do not collide.
+     * Without one, the per-request id still dedupes Kafka redeliveries of the same record.
+     */
+    static String requestKey(BookingRequest request, byte[] idempotencyKey, byte[] requestId) {
+        if (idempotencyKey != null) {
+            return "idem:" + request.userId() + ":" + new String(idempotencyKey, StandardCharsets.UTF_8);
+        }
+        if (requestId != null) {
+            return "req:" + new String(requestId, StandardCharsets.UTF_8);
         }
+        return null;
     }
 }
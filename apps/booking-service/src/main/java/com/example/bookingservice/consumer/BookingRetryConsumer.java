@@ -0,0 +1,64 @@
+package com.example.bookingservice.consumer;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import com.example.bookingservice.service.BookingRejectedException;
+import com.example.bookingservice.service.BookingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Works through the retry tiers. Each tier has its own container, so a record waiting out a long
+ * back-off never delays a shorter tier, and none of them touch the main booking-requests partitions.
+ */
+@Service
+public class BookingRetryConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(BookingRetryConsumer.class);
+
+    private final BookingService bookingService;
+    private final BookingRetryProducer retryProducer;
+
+    public BookingRetryConsumer(BookingService bookingService, BookingRetryProducer retryProducer) {
+        this.bookingService = bookingService;
+        this.retryProducer = retryProducer;
+    }
+
+    @KafkaListener(id = "booking-retry-0", topics = BookingRetryProducer.RETRY_TOPIC_0, groupId = "booking-service",
+            containerFactory = "retryListenerContainerFactory")
+    @KafkaListener(id = "booking-retry-1", topics = BookingRetryProducer.RETRY_TOPIC_1, groupId = "booking-service",
+            containerFactory = "retryListenerContainerFactory")
+    @KafkaListener(id = "booking-retry-2", topics = BookingRetryProducer.RETRY_TOPIC_2, groupId = "booking-service",
+            containerFactory = "retryListenerContainerFactory")
+    public void consumeRetry(ConsumerRecord<String, BookingRequest> record, Acknowledgment ack) {
+        long wait = BookingRetryProducer.dueAt(record) - System.currentTimeMillis();
+        if (wait > 0) {
+            // Every record in a tier has the same delay, so nothing behind this one is due earlier either
+            ack.nack(Duration.ofMillis(wait));
+            return;
+        }
+
+        BookingRequest request = record.value();
+        if (request == null) {
+            BookingConsumer.deadLetterIfUndecodable(record, retryProducer);
+        } else {
+            BookingCommand command = BookingConsumer.toCommand(record);
+            try {
+                bookingService.createBookingIfAbsent(command.requestKey(), command.userId(), command.amenityId(),
+                        command.startTime(), command.endTime());
+            } catch (BookingRejectedException e) {
+                logger.info("Rejecting retried booking request {}: {}", command.requestKey(), e.getMessage());
+                bookingService.recordRejection(command, e.getMessage());
+            } catch (RuntimeException e) {
+                retryProducer.retry(record, request, e);
+            }
+        }
+        ack.acknowledge();
+    }
+}
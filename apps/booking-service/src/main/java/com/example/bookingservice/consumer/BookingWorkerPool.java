@@ -0,0 +1,95 @@
+package com.example.bookingservice.consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fixed pool that works through one listener batch in per-key lanes: items sharing a key run
+ * one after another in their original order, different keys run in parallel.
+ *
+ * Queue depth and busy workers are published as executor.queued / executor.active
+ * (tag name=booking.workers). With virtual threads enabled the workers are virtual threads; the
+ * pool still caps how many lanes run at once.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BookingWorkerPool {
+
+    private final ExecutorService executor;
+
+    public BookingWorkerPool(MeterRegistry meterRegistry,
+                             @Value("${booking.consumer.workers:0}") int workers,
+                             Environment environment) {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("booking-worker-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "booking-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(threads, threadFactory), "booking.workers");
+    }
+
+    /**
+     * Runs {@code work} once per key and waits for every lane, so the caller can commit the batch afterwards.
+     *
+     * @return the results of all lanes, in order of each key's first appearance
+     */
+    public <I, R> List<R> runByKey(List<I> items, Function<I, String> keyOf, Function<List<I>, List<R>> work) {
+        Map<String, List<I>> lanes = new LinkedHashMap<>();
+        for (I item : items) {
+            lanes.computeIfAbsent(keyOf.apply(item), key -> new ArrayList<>()).add(item);
+        }
+        if (lanes.size() <= 1) {
+            return work.apply(items);
+        }
+
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(lanes.size());
+        for (List<I> lane : lanes.values()) {
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(lane), executor));
+        }
+        List<R> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<R>> future : futures) {
+                results.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            // Rethrow what the lane threw rather than the wrapper
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
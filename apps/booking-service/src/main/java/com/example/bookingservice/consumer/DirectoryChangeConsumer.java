@@ -0,0 +1,71 @@
+package com.example.bookingservice.consumer;
+
+import com.example.bookingservice.service.AmenityRegistry;
+import com.example.bookingservice.service.UserDirectory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Evicts directory entries when the owning system announces a change. Events are keyed by the
+ * changed id; the value is not read. A record without a key drops the whole cache.
+ */
+@Service
+public class DirectoryChangeConsumer implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryChangeConsumer.class);
+
+    public static final String USER_CHANGES_TOPIC = "user-changes";
+    public static final String AMENITY_CHANGES_TOPIC = "amenity-changes";
+
+    private final UserDirectory userDirectory;
+    private final AmenityRegistry amenityRegistry;
+
+    public DirectoryChangeConsumer(UserDirectory userDirectory, AmenityRegistry amenityRegistry) {
+        this.userDirectory = userDirectory;
+        this.amenityRegistry = amenityRegistry;
+    }
+
+    // Every pod caches on its own, so each one assigns itself the whole topic; no group and no commits,
+    // so a restart leaves nothing behind on the broker.
+    @KafkaListener(topicPartitions = @TopicPartition(topic = USER_CHANGES_TOPIC,
+            partitions = "#{@kafkaPartitionFinder.partitions('" + USER_CHANGES_TOPIC + "')}"),
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"})
+    public void onUserChange(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            userDirectory.invalidateAll();
+            logger.info("Cleared user directory");
+            return;
+        }
+        try {
+            userDirectory.invalidate(Long.valueOf(record.key()));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring user change with invalid id {}", record.key());
+        }
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = AMENITY_CHANGES_TOPIC,
+            partitions = "#{@kafkaPartitionFinder.partitions('" + AMENITY_CHANGES_TOPIC + "')}"),
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"})
+    public void onAmenityChange(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            amenityRegistry.invalidateAll();
+            logger.info("Cleared amenity registry");
+            return;
+        }
+        amenityRegistry.invalidate(record.key());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // A new pod starts with empty caches, so it has no use for events older than itself
+        callback.seekToEnd(assignments.keySet());
+    }
+}
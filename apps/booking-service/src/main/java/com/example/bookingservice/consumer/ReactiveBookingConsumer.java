@@ -0,0 +1,100 @@
+package com.example.bookingservice.consumer;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import com.example.bookingservice.service.ReactiveBookingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactive ingestion of booking-requests, replacing BookingConsumer in the reactive runtime mode.
+ *
+ * Each poll is handled as one batch through ReactiveBookingService, and the next poll is only
+ * requested once the batch is written, so a slow database pauses the consumer instead of buffering
+ * records. Offsets are acknowledged after the batch is booked, rejected or handed to the retry
+ * topics. Sending to the retry and dead-letter topics stays blocking and runs on boundedElastic.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveBookingConsumer.class);
+
+    private final KafkaReceiver<String, BookingRequest> receiver;
+    private final ReactiveBookingService bookingService;
+    private final BookingRetryProducer retryProducer;
+    private Disposable subscription;
+
+    public ReactiveBookingConsumer(KafkaReceiver<String, BookingRequest> receiver, ReactiveBookingService bookingService,
+                                   BookingRetryProducer retryProducer) {
+        this.receiver = receiver;
+        this.bookingService = bookingService;
+        this.retryProducer = retryProducer;
+    }
+
+    @PostConstruct
+    public void start() {
+        subscription = receiver.receiveBatch()
+                .concatMap(batch -> batch.collectList().flatMap(this::process))
+                // Unacknowledged records are delivered again after resubscribing; request keys catch the replays
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> logger.error("Booking request stream failed, resubscribing", signal.failure())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * @return the number of bookings created from the batch
+     */
+    Mono<Integer> process(List<ReceiverRecord<String, BookingRequest>> records) {
+        List<ReceiverRecord<String, BookingRequest>> decoded = new ArrayList<>(records.size());
+        List<ReceiverRecord<String, BookingRequest>> undecodable = new ArrayList<>();
+        for (ReceiverRecord<String, BookingRequest> record : records) {
+            (record.value() != null ? decoded : undecodable).add(record);
+        }
+        List<BookingCommand> commands = new ArrayList<>(decoded.size());
+        for (ReceiverRecord<String, BookingRequest> record : decoded) {
+            commands.add(BookingConsumer.toCommand(record));
+        }
+        logger.info("Processing batch of {} booking requests", decoded.size());
+
+        Mono<Void> deadLetters = undecodable.isEmpty() ? Mono.empty() : blocking(() ->
+                undecodable.forEach(record -> BookingConsumer.deadLetterIfUndecodable(record, retryProducer)));
+        Mono<Integer> created = commands.isEmpty() ? Mono.just(0) : bookingService.createBookingsIfAbsent(commands)
+                .map(List::size)
+                .onErrorResume(RuntimeException.class, e -> {
+                    logger.warn("Failed to process {} booking requests, sending them to retry: {}", decoded.size(), e.getMessage());
+                    // Requests that did get through are recognised by their request key on the next attempt
+                    return blocking(() -> decoded.forEach(record -> retryProducer.retry(record, record.value(), e)))
+                            .thenReturn(0);
+                });
+        return deadLetters.then(created).doOnNext(count -> {
+            records.forEach(record -> record.receiverOffset().acknowledge());
+            logger.info("Created {} bookings from batch of {} records", count, records.size());
+        });
+    }
+
+    private static Mono<Void> blocking(Runnable action) {
+        return Mono.fromRunnable(action).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -1,25 +1,45 @@
 package com.example.bookingservice.controller;
 
+import com.example.bookingservice.dto.BookingBatchRequest;
+import com.example.bookingservice.dto.BookingBatchResponse;
+import com.example.bookingservice.dto.BookingBatchResult;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingPage;
 import com.example.bookingservice.dto.BookingRequest;
 import com.example.bookingservice.dto.BookingResponse;
 import com.example.bookingservice.dto.ErrorResponse;
 import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.service.BookingConflictException;
+import com.example.bookingservice.service.BookingOutcome;
 import com.example.bookingservice.service.BookingService;
+import com.example.bookingservice.service.RecurrenceExpander;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/bookings")
 @Tag(name = "Booking Management", description = "APIs for managing amenity bookings")
 public class BookingController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingService bookingService;
 
     public BookingController(BookingService bookingService) {
@@ -47,6 +67,14 @@ public class BookingController {
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The amenity is already booked for an overlapping time",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -66,21 +94,140 @@ public class BookingController {
                     request.endTime()
             );
 
-            BookingResponse response = new BookingResponse(
-                    booking.getId(),
-                    booking.getUserId(),
-                    booking.getAmenityId(),
-                    booking.getStartTime(),
-                    booking.getEndTime(),
-                    booking.getStatus()
-            );
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toResponse(booking));
         } catch (RuntimeException e) {
             throw e; // Will be handled by exception handler
         }
     }
 
+    @Operation(
+            summary = "Create several bookings",
+            description = "Creates bookings from a list or from a recurrence rule such as every weekday at 06:00 for a month "
+                    + "(at most " + MAX_BATCH_SIZE + " entries). All entries are checked in one pass and the accepted ones "
+                    + "are saved in one transaction; entries that fail validation or overlap are rejected individually."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Outcome of every entry",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BookingBatchResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Neither or both of bookings and recurrence given, invalid rule, or too many entries",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BookingBatchResponse> createBookings(@RequestBody BookingBatchRequest request) {
+        return ResponseEntity.ok(toBatchResponse(bookingService.createBookings(toCommands(request))));
+    }
+
+    @Operation(
+            summary = "List bookings",
+            description = "Bookings filtered by user, amenity and start time, ordered by start time. "
+                    + "Pages are keyset-paginated: pass the returned nextCursor to get the next page."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "One page of bookings",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BookingPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter, size or cursor",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping
+    public ResponseEntity<BookingPage> listBookings(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String amenityId,
+            @Parameter(description = "Only bookings starting at or after this time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only bookings starting before this time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookingService.listBookings(toFilter(userId, amenityId, from, to, size), cursor, size));
+    }
+
+    static List<BookingCommand> toCommands(BookingBatchRequest request) {
+        if ((request.bookings() == null) == (request.recurrence() == null)) {
+            throw new IllegalArgumentException("Give either bookings or recurrence");
+        }
+        if (request.bookings() != null && request.bookings().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " bookings per batch");
+        }
+        return request.recurrence() != null
+                ? RecurrenceExpander.expand(request.recurrence(), MAX_BATCH_SIZE)
+                : request.bookings().stream()
+                        .map(booking -> new BookingCommand(null, booking.userId(), booking.amenityId(),
+                                booking.startTime(), booking.endTime()))
+                        .toList();
+    }
+
+    static BookingBatchResponse toBatchResponse(List<BookingOutcome> outcomes) {
+        List<BookingBatchResult> results = new ArrayList<>(outcomes.size());
+        int booked = 0;
+        for (BookingOutcome outcome : outcomes) {
+            BookingCommand command = outcome.command();
+            if (outcome.booking() != null) {
+                booked++;
+                results.add(new BookingBatchResult(BookingBatchResult.BOOKED, outcome.booking().getId(),
+                        command.amenityId(), command.startTime(), command.endTime(), null));
+            } else {
+                results.add(new BookingBatchResult(BookingBatchResult.REJECTED, null,
+                        command.amenityId(), command.startTime(), command.endTime(), outcome.rejection()));
+            }
+        }
+        return new BookingBatchResponse(booked, results.size() - booked, results);
+    }
+
+    static BookingFilter toFilter(Long userId, String amenityId, LocalDateTime from, LocalDateTime to, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        return new BookingFilter(userId, amenityId, from, to);
+    }
+
+    static BookingResponse toResponse(Booking booking) {
+        return new BookingResponse(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getAmenityId(),
+                booking.getStartTime(),
+                booking.getEndTime(),
+                booking.getStatus()
+        );
+    }
+
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<ErrorResponse> handleBookingConflict(BookingConflictException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                System.currentTimeMillis()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
         ErrorResponse error = new ErrorResponse(
@@ -0,0 +1,94 @@
+package com.example.bookingservice.controller;
+
+import com.example.bookingservice.dto.DeadLetterReplayResponse;
+import com.example.bookingservice.dto.ErrorResponse;
+import com.example.bookingservice.service.DeadLetterReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.kafka.common.KafkaException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/bookings/dead-letters")
+@Tag(name = "Dead Letters", description = "Booking requests that failed every retry")
+public class DeadLetterController {
+
+    private static final int MAX_REPLAY = 10_000;
+
+    private final DeadLetterReplayService replayService;
+
+    public DeadLetterController(DeadLetterReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    @Operation(
+            summary = "Replay dead-lettered booking requests",
+            description = "Republishes up to `max` records from booking-requests-dlt to booking-requests, oldest first."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Records replayed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = DeadLetterReplayResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid max",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Another replay is running",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Kafka could not be read or written; nothing was committed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replay(@RequestParam(defaultValue = "1000") int max) {
+        if (max < 1 || max > MAX_REPLAY) {
+            throw new IllegalArgumentException("max must be between 1 and " + MAX_REPLAY);
+        }
+        return ResponseEntity.ok(new DeadLetterReplayResponse(replayService.replay(max)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalState(IllegalStateException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(KafkaException.class)
+    public ResponseEntity<ErrorResponse> handleKafkaException(KafkaException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ErrorResponse(status.value(), message, System.currentTimeMillis()));
+    }
+}
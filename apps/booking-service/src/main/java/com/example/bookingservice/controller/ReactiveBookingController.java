@@ -0,0 +1,81 @@
+package com.example.bookingservice.controller;
+
+import com.example.bookingservice.dto.BookingBatchRequest;
+import com.example.bookingservice.dto.BookingBatchResponse;
+import com.example.bookingservice.dto.BookingPage;
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.dto.BookingResponse;
+import com.example.bookingservice.dto.ErrorResponse;
+import com.example.bookingservice.service.BookingConflictException;
+import com.example.bookingservice.service.ReactiveBookingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * The /api/bookings API of BookingController for the reactive runtime mode: same paths, bodies,
+ * status codes and limits, served from Netty without blocking. The OpenAPI description is the one
+ * BookingController publishes in the servlet mode.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/bookings")
+public class ReactiveBookingController {
+
+    private final ReactiveBookingService bookingService;
+
+    public ReactiveBookingController(ReactiveBookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BookingResponse>> createBooking(@RequestBody BookingRequest request) {
+        return bookingService.createBooking(request.userId(), request.amenityId(), request.startTime(), request.endTime())
+                .map(booking -> ResponseEntity.ok(BookingController.toResponse(booking)));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<BookingBatchResponse>> createBookings(@RequestBody BookingBatchRequest request) {
+        return Mono.fromSupplier(() -> BookingController.toCommands(request))
+                .flatMap(bookingService::createBookings)
+                .map(outcomes -> ResponseEntity.ok(BookingController.toBatchResponse(outcomes)));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<BookingPage>> listBookings(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String amenityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return Mono.fromSupplier(() -> BookingController.toFilter(userId, amenityId, from, to, size))
+                .flatMap(filter -> bookingService.listBookings(filter, cursor, size))
+                .map(ResponseEntity::ok);
+    }
+
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<ErrorResponse> handleBookingConflict(BookingConflictException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                System.currentTimeMillis()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                System.currentTimeMillis()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+}
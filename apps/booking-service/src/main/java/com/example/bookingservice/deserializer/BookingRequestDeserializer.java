@@ -3,10 +3,13 @@ package com.example.bookingservice.deserializer;
 import com.example.bookingservice.dto.BookingRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class BookingRequestDeserializer implements Deserializer<BookingRequest> {
@@ -38,6 +41,24 @@ public class BookingRequestDeserializer implements Deserializer<BookingRequest>
         }
     }
 
+    @Override
+    public BookingRequest deserialize(String topic, Headers headers, byte[] data) {
+        Header format = headers == null ? null : headers.lastHeader(BookingWireFormat.HEADER);
+        if (format == null || data == null) {
+            return deserialize(topic, data);
+        }
+        String name = new String(format.value(), StandardCharsets.UTF_8);
+        if (!BookingWireFormat.BINARY_V1.equals(name)) {
+            throw new RuntimeException("Unsupported booking-format: " + name);
+        }
+        try {
+            return BookingWireFormat.decode(data);
+        } catch (Exception e) {
+            logger.error("Error decoding binary BookingRequest: {}", e.getMessage());
+            throw new RuntimeException("Error decoding binary BookingRequest", e);
+        }
+    }
+
     @Override
     public void close() {
     }
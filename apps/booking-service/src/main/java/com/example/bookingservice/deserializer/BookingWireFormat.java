@@ -0,0 +1,174 @@
+package com.example.bookingservice.deserializer;
+
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.dto.BookingRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of booking messages, selected per record by the {@value #HEADER} header.
+ * Records without the header are JSON, so JSON and binary producers/consumers can coexist during rollout.
+ * Must stay byte-compatible with catalog-service's BookingWireFormat.
+ *
+ * Layout (v1): version byte, presence bitmask byte (bit i set if field i is non-null), then every
+ * non-null field in declaration order. Ids are zig-zag varints, strings are a varint length followed
+ * by UTF-8, timestamps are zig-zag varint epoch millis (UTC).
+ */
+public final class BookingWireFormat {
+
+    public static final String HEADER = "booking-format";
+    public static final String BINARY_V1 = "binary-v1";
+
+    static final byte VERSION_1 = 1;
+
+    private BookingWireFormat() {
+    }
+
+    public static BookingRequest decode(byte[] data) {
+        Reader in = new Reader(data);
+        Long userId = in.readLong();
+        String amenityId = in.readString();
+        in.readString(); // serviceType, not used here
+        return new BookingRequest(userId, amenityId, in.readTime(), in.readTime());
+    }
+
+    public static byte[] encodeEvent(BookingEvent event) {
+        Writer out = new Writer(presence(event.eventType(), event.bookingId(), event.userId(),
+                event.amenityId(), event.startTime(), event.endTime(), event.reason()));
+        out.writeString(event.eventType());
+        out.writeLong(event.bookingId());
+        out.writeLong(event.userId());
+        out.writeString(event.amenityId());
+        out.writeTime(event.startTime());
+        out.writeTime(event.endTime());
+        // Appended last, so readers that stop after endTime still decode the rest
+        out.writeString(event.reason());
+        return out.toByteArray();
+    }
+
+    private static int presence(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static final class Writer {
+        private final int presence;
+        private byte[] buf = new byte[64];
+        private int pos;
+        private int field;
+
+        Writer(int presence) {
+            this.presence = presence;
+            buf[pos++] = VERSION_1;
+            buf[pos++] = (byte) presence;
+        }
+
+        void writeLong(Long value) {
+            if (present()) {
+                writeVarLong((value << 1) ^ (value >> 63));
+            }
+        }
+
+        void writeString(String value) {
+            if (present()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, buf, pos, bytes.length);
+                pos += bytes.length;
+            }
+        }
+
+        void writeTime(LocalDateTime value) {
+            writeLong(value == null ? null : value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private boolean present() {
+            return (presence & (1 << field++)) != 0;
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private final int presence;
+        private int pos;
+        private int field;
+
+        Reader(byte[] data) {
+            if (data.length < 2 || data[0] != VERSION_1) {
+                throw new IllegalArgumentException("Unsupported booking wire format version: "
+                        + (data.length == 0 ? "empty" : data[0]));
+            }
+            this.data = data;
+            this.presence = data[1] & 0xFF;
+            this.pos = 2;
+        }
+
+        Long readLong() {
+            if (!present()) {
+                return null;
+            }
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            if (!present()) {
+                return null;
+            }
+            int length = (int) readVarLong();
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        LocalDateTime readTime() {
+            Long millis = readLong();
+            return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+
+        private boolean present() {
+            return (presence & (1 << field++)) != 0;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in booking record");
+        }
+    }
+}
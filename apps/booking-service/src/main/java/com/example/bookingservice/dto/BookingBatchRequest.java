@@ -0,0 +1,14 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Several bookings at once: either an explicit list or a recurrence rule, not both")
+public record BookingBatchRequest(
+    @Schema(description = "Bookings to create")
+    List<BookingRequest> bookings,
+
+    @Schema(description = "Rule expanded into one booking per occurrence")
+    BookingRecurrence recurrence
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Per-entry outcomes of a batch, in request order (or date order for a recurrence)")
+public record BookingBatchResponse(
+    @Schema(description = "Entries booked", example = "20")
+    int booked,
+
+    @Schema(description = "Entries rejected", example = "2")
+    int rejected,
+
+    List<BookingBatchResult> results
+) {
+}
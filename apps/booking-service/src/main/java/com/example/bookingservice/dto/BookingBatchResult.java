@@ -0,0 +1,28 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+@Schema(description = "Outcome of one entry of a batch")
+public record BookingBatchResult(
+    @Schema(description = "BOOKED or REJECTED", example = "BOOKED")
+    String status,
+
+    @Schema(description = "ID of the new booking; null if rejected", example = "1")
+    Long bookingId,
+
+    @Schema(description = "Amenity ID", example = "GYM")
+    String amenityId,
+
+    @Schema(description = "Booking start time", example = "2025-12-01T06:00:00")
+    LocalDateTime startTime,
+
+    @Schema(description = "Booking end time", example = "2025-12-01T07:00:00")
+    LocalDateTime endTime,
+
+    @Schema(description = "Why the entry was rejected; null if booked", example = "Amenity GYM is already booked between 2025-12-01T06:00 and 2025-12-01T07:00")
+    String reason
+) {
+    public static final String BOOKED = "BOOKED";
+    public static final String REJECTED = "REJECTED";
+}
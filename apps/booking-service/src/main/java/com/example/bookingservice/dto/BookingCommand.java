@@ -0,0 +1,17 @@
+package com.example.bookingservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One booking to create as part of a batch
+ *
+ * @param requestKey dedupe key of the originating request, or null if it has none
+ */
+public record BookingCommand(
+    String requestKey,
+    Long userId,
+    String amenityId,
+    LocalDateTime startTime,
+    LocalDateTime endTime
+) {
+}
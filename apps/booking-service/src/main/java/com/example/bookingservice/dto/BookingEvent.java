@@ -0,0 +1,20 @@
+package com.example.bookingservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a booking, published to the booking-events topic
+ */
+public record BookingEvent(
+    String eventType,
+    Long bookingId,
+    Long userId,
+    String amenityId,
+    LocalDateTime startTime,
+    LocalDateTime endTime,
+    // Why a BookingRejected request was turned down; null for confirmations
+    String reason
+) {
+    public static final String BOOKING_CONFIRMED = "BookingConfirmed";
+    public static final String BOOKING_REJECTED = "BookingRejected";
+}
@@ -0,0 +1,9 @@
+package com.example.bookingservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing filter; null fields are not filtered on. Bookings match when they start in [from, to).
+ */
+public record BookingFilter(Long userId, String amenityId, LocalDateTime from, LocalDateTime to) {
+}
@@ -0,0 +1,14 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "One page of bookings, ordered by start time")
+public record BookingPage(
+    @Schema(description = "Bookings on this page")
+    List<BookingSummary> items,
+
+    @Schema(description = "Pass as `cursor` to get the next page; null on the last page", example = "MjAyNS0xMi0wMVQxMDowMHw0Mg")
+    String nextCursor
+) {
+}
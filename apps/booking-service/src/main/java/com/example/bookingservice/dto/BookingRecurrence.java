@@ -0,0 +1,32 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Schema(description = "The same time slot on selected days of a date range")
+public record BookingRecurrence(
+    @Schema(description = "User ID", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    Long userId,
+
+    @Schema(description = "Amenity ID", example = "GYM", requiredMode = Schema.RequiredMode.REQUIRED)
+    String amenityId,
+
+    @Schema(description = "First day of the range", example = "2025-12-01", requiredMode = Schema.RequiredMode.REQUIRED)
+    LocalDate startDate,
+
+    @Schema(description = "Last day of the range, inclusive", example = "2025-12-31", requiredMode = Schema.RequiredMode.REQUIRED)
+    LocalDate endDate,
+
+    @Schema(description = "Days to book; every day if omitted", example = "[\"MONDAY\", \"WEDNESDAY\", \"FRIDAY\"]")
+    Set<DayOfWeek> daysOfWeek,
+
+    @Schema(description = "Start of the slot on each day", example = "06:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+    LocalTime startTime,
+
+    @Schema(description = "End of the slot on each day", example = "07:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+    LocalTime endTime
+) {
+}
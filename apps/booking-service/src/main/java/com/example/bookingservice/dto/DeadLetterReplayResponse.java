@@ -0,0 +1,10 @@
+package com.example.bookingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a dead-letter replay")
+public record DeadLetterReplayResponse(
+    @Schema(description = "Records republished to booking-requests", example = "42")
+    int replayed
+) {
+}
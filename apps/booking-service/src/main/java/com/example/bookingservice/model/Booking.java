@@ -1,21 +1,45 @@
 package com.example.bookingservice.model;
 
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
+// Each listing filter walks one of these in (startTime, id) order, so a page reads only its own rows
+@Table(indexes = {
+        @Index(name = "idx_booking_user_start", columnList = "userId, startTime, id"),
+        @Index(name = "idx_booking_amenity_start", columnList = "amenityId, startTime, id"),
+        @Index(name = "idx_booking_start", columnList = "startTime, id")
+})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: ids are handed out 50 per database call, and unlike IDENTITY it lets Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
     private Long userId;
     private String amenityId;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String status;
+    // Dedupe key of the request that created this booking; unique so a replayed request cannot insert twice
+    @Column(unique = true)
+    private String requestKey;
+    // Written in the same insert batch as the booking; a clash on the slots' unique key rolls the booking back
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "booking_id", nullable = false)
+    private List<BookingSlot> slots = new ArrayList<>();
 
     public Booking() {
     }
@@ -67,4 +91,20 @@ public class Booking {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public List<BookingSlot> getSlots() {
+        return slots;
+    }
+
+    public void setSlots(List<BookingSlot> slots) {
+        this.slots = slots;
+    }
+
+    public String getRequestKey() {
+        return requestKey;
+    }
+
+    public void setRequestKey(String requestKey) {
+        this.requestKey = requestKey;
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.bookingservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One 15-minute cell of an amenity held by a booking. The unique (amenity, cell) constraint is the
+ * database's last word on overlaps, whichever instance or code path wrote the booking.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_booking_slot_amenity_start", columnNames = {"amenityId", "slotStart"}))
+public class BookingSlot {
+    public static final int CELL_MINUTES = 15;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_slot_seq")
+    @SequenceGenerator(name = "booking_slot_seq", sequenceName = "booking_slot_seq", allocationSize = 200)
+    private Long id;
+    private String amenityId;
+    private LocalDateTime slotStart;
+
+    public BookingSlot() {
+    }
+
+    public BookingSlot(String amenityId, LocalDateTime slotStart) {
+        this.amenityId = amenityId;
+        this.slotStart = slotStart;
+    }
+
+    /**
+     * Cells covering [start, end), rounded outwards to whole cells.
+     */
+    public static List<BookingSlot> covering(String amenityId, LocalDateTime start, LocalDateTime end) {
+        List<BookingSlot> slots = new ArrayList<>();
+        for (LocalDateTime cell = floorToCell(start); cell.isBefore(end); cell = cell.plusMinutes(CELL_MINUTES)) {
+            slots.add(new BookingSlot(amenityId, cell));
+        }
+        return slots;
+    }
+
+    public static LocalDateTime floorToCell(LocalDateTime time) {
+        return time.withSecond(0).withNano(0).withMinute(time.getMinute() / CELL_MINUTES * CELL_MINUTES);
+    }
+
+    public static LocalDateTime ceilToCell(LocalDateTime time) {
+        LocalDateTime floor = floorToCell(time);
+        return floor.equals(time) ? floor : floor.plusMinutes(CELL_MINUTES);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAmenityId() {
+        return amenityId;
+    }
+
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bookingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A booking event waiting to be published, written in the same transaction as the change it
+ * describes. The value is stored already encoded, so the relay only moves bytes.
+ */
+@Entity
+// The relay reads unsent rows in id order
+@Table(name = "booking_outbox", indexes = @Index(name = "idx_booking_outbox_unsent", columnList = "sentAt, id"))
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 50)
+    private Long id;
+    private String topic;
+    private String messageKey;
+    @Column(length = 4096)
+    private byte[] payload;
+    // booking-format header value, or null for JSON
+    private String format;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String topic, String messageKey, byte[] payload, String format) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payload = payload;
+        this.format = format;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bookingservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The single row naming the instance that currently publishes the outbox, and until when. Only one
+ * relay sends at a time, so events of the same key reach Kafka in outbox order.
+ */
+@Entity
+@Table(name = "booking_outbox_relay_lease")
+public class OutboxRelayLease {
+    @Id
+    private Long id;
+    private String owner;
+    private LocalDateTime expiresAt;
+
+    public OutboxRelayLease() {
+    }
+
+    public OutboxRelayLease(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.bookingservice.producer;
+
+import com.example.bookingservice.config.BookingRetryProperties;
+import com.example.bookingservice.deserializer.BookingWireFormat;
+import com.example.bookingservice.dto.BookingRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves booking requests that failed for a transient reason off the main topic.
+ *
+ * Each failure goes one tier further: booking-requests-retry-0, -1, -2 (delays from
+ * booking.retry.delays), then booking-requests-dlt. Records keep their key and tracing headers and
+ * carry the failure in the standard kafka_dlt-* headers, plus the attempt number and the time the
+ * next attempt is due.
+ */
+@Service
+public class BookingRetryProducer {
+    private static final Logger logger = LoggerFactory.getLogger(BookingRetryProducer.class);
+
+    public static final String SOURCE_TOPIC = "booking-requests";
+    public static final String RETRY_TOPIC_0 = "booking-requests-retry-0";
+    public static final String RETRY_TOPIC_1 = "booking-requests-retry-1";
+    public static final String RETRY_TOPIC_2 = "booking-requests-retry-2";
+    public static final List<String> RETRY_TOPICS = List.of(RETRY_TOPIC_0, RETRY_TOPIC_1, RETRY_TOPIC_2);
+    public static final String DLT_TOPIC = "booking-requests-dlt";
+
+    public static final String ATTEMPT_HEADER = "booking-retry-attempt";
+    public static final String DUE_HEADER = "booking-retry-due";
+
+    // The caller commits the source offset afterwards, so wait for the broker
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final BookingRetryProperties properties;
+
+    public BookingRetryProducer(KafkaTemplate<String, byte[]> kafkaTemplate, ObjectMapper objectMapper,
+                                BookingRetryProperties properties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Sends the request to the next retry tier, or to the dead-letter topic once every tier has been tried.
+     * The value is re-encoded as JSON whatever format it arrived in.
+     */
+    public void retry(ConsumerRecord<String, ?> record, BookingRequest request, Exception cause) {
+        int attempt = attemptOf(record);
+        byte[] value;
+        try {
+            value = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode booking request for retry", e);
+        }
+        if (attempt < RETRY_TOPICS.size()) {
+            long due = System.currentTimeMillis() + properties.delays().get(attempt).toMillis();
+            send(RETRY_TOPICS.get(attempt), record, value, false, cause, attempt + 1, due);
+        } else {
+            send(DLT_TOPIC, record, value, false, cause, attempt + 1, null);
+        }
+    }
+
+    /**
+     * Sends a record whose value could not be decoded straight to the dead-letter topic, with its original bytes.
+     */
+    public void deadLetter(ConsumerRecord<String, ?> record, byte[] rawValue, Exception cause) {
+        send(DLT_TOPIC, record, rawValue, true, cause, attemptOf(record), null);
+    }
+
+    /**
+     * When the record may be processed, in epoch millis; 0 for records without a due time.
+     */
+    public static long dueAt(ConsumerRecord<?, ?> record) {
+        Header due = record.headers().lastHeader(DUE_HEADER);
+        return due == null ? 0 : Long.parseLong(new String(due.value(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Headers this pipeline owns; they are rewritten on every hop and dropped on replay.
+     */
+    public static boolean isPipelineHeader(String name) {
+        return name.equals(ATTEMPT_HEADER) || name.equals(DUE_HEADER)
+                || name.startsWith(KafkaHeaders.PREFIX + "dlt-")
+                || name.equals(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER);
+    }
+
+    private static int attemptOf(ConsumerRecord<?, ?> record) {
+        Header attempt = record.headers().lastHeader(ATTEMPT_HEADER);
+        return attempt == null ? 0 : Integer.parseInt(new String(attempt.value(), StandardCharsets.UTF_8));
+    }
+
+    private void send(String topic, ConsumerRecord<String, ?> source, byte[] value, boolean keepFormat,
+                      Exception cause, int attempt, Long due) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, source.key(), value);
+        Headers headers = record.headers();
+        for (Header header : source.headers()) {
+            boolean formatHeader = header.key().equals(BookingWireFormat.HEADER);
+            if ((keepFormat || !formatHeader) && !isPipelineHeader(header.key())) {
+                headers.add(header);
+            }
+        }
+        Header originalTopic = source.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (originalTopic == null) {
+            headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, utf8(source.topic()));
+            headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(4).putInt(source.partition()).array());
+            headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(8).putLong(source.offset()).array());
+        } else {
+            headers.add(originalTopic);
+            headers.add(source.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION));
+            headers.add(source.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET));
+        }
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, utf8(cause.getClass().getName()));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, utf8(String.valueOf(cause.getMessage())));
+        if (cause.getCause() != null) {
+            headers.add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, utf8(cause.getCause().getClass().getName()));
+        }
+        headers.add(ATTEMPT_HEADER, utf8(Integer.toString(attempt)));
+        if (due != null) {
+            headers.add(DUE_HEADER, utf8(Long.toString(due)));
+        }
+
+        try {
+            kafkaTemplate.send(record).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding booking request to " + topic, e);
+        } catch (Exception e) {
+            throw new KafkaException("Could not forward booking request to " + topic, e);
+        }
+        logger.warn("Forwarded booking request {}-{}@{} to {} after: {}",
+                source.topic(), source.partition(), source.offset(), topic, cause.getMessage());
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.bookingservice.producer;
+
+import com.example.bookingservice.config.BookingOutboxProperties;
+import com.example.bookingservice.deserializer.BookingWireFormat;
+import com.example.bookingservice.model.OutboxEvent;
+import com.example.bookingservice.model.OutboxRelayLease;
+import com.example.bookingservice.repository.OutboxEventRepository;
+import com.example.bookingservice.repository.OutboxRelayLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the booking outbox. Each round reads a batch of unsent rows, hands all of them to the
+ * producer before waiting, and marks the acknowledged ones sent with one update. Only the rows before
+ * the first failure count as acknowledged: the failed row and everything after it stay unsent and go
+ * out again, in order, in a later round, so delivery is at least once and in outbox order per key.
+ *
+ * Only the instance holding the relay lease publishes, and it waits for acks outside any
+ * transaction. Two relays sending side by side could put later events of an amenity on the
+ * topic before earlier ones; the lease is renewed before every batch and outlasts the ack wait,
+ * so a batch is always finished by the time another instance can take over.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+    private static final long LEASE_ID = 1L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelayLeaseRepository leaseRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingOutboxProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxRelayLeaseRepository leaseRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate, TransactionTemplate transactionTemplate,
+                       BookingOutboxProperties properties, TaskScheduler taskScheduler) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.leaseRepository = leaseRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void start() {
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::relay, properties.pollInterval()));
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL));
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * Publishes batches until the outbox is drained or a send fails.
+     */
+    public void relay() {
+        try {
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == properties.batchSize());
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay round failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return how many events were published and marked sent
+     */
+    int relayBatch() {
+        if (!holdsLease()) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findUnsent(PageRequest.of(0, properties.batchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            futures.add(kafkaTemplate.send(toRecord(event)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SEND_TIMEOUT_SECONDS);
+        List<Long> acknowledged = new ArrayList<>(batch.size());
+        Exception failure = null;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                // Later events may share the failed one's key; marking them sent would let them overtake it
+                failure = e;
+                break;
+            }
+        }
+        if (!acknowledged.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markSent(acknowledged, LocalDateTime.now()));
+        }
+        if (failure != null) {
+            logger.warn("Published {} of {} outbox events; the rest stay queued: {}",
+                    acknowledged.size(), batch.size(), failure.getMessage());
+        }
+        return acknowledged.size();
+    }
+
+    /**
+     * Takes or renews the relay lease for this instance.
+     *
+     * @return whether this instance may publish for the next leaseTtl
+     */
+    boolean holdsLease() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(status ->
+                leaseRepository.acquire(LEASE_ID, instanceId, now, now.plus(properties.leaseTtl())));
+        if (acquired != null && acquired > 0) {
+            return true;
+        }
+        if (!leaseRepository.existsById(LEASE_ID)) {
+            // First relay on this database; the lease is taken in the next round
+            try {
+                leaseRepository.saveAndFlush(new OutboxRelayLease(LEASE_ID));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it first
+            }
+        }
+        return false;
+    }
+
+    void purge() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(properties.retention())));
+            if (purged != null && purged > 0) {
+                logger.debug("Purged {} published outbox events", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Outbox purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        if (event.getFormat() != null) {
+            record.headers().add(BookingWireFormat.HEADER, event.getFormat().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
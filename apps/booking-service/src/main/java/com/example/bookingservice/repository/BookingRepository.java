@@ -2,8 +2,24 @@ package com.example.bookingservice.repository;
 
 import com.example.bookingservice.model.Booking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+
+    boolean existsByRequestKey(String requestKey);
+
+    List<Booking> findByEndTimeAfter(LocalDateTime time);
+
+    List<Booking> findByAmenityIdAndEndTimeAfter(String amenityId, LocalDateTime time);
+
+    @Query("select b.requestKey from Booking b where b.requestKey in :keys")
+    Set<String> findExistingRequestKeys(@Param("keys") Collection<String> keys);
 }
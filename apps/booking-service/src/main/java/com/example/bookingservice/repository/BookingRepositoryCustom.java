@@ -0,0 +1,18 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Bookings matching {@code filter} that sort after (afterStart, afterId), ordered by (startTime, id).
+     *
+     * @param afterStart start time of the previous page's last row, or null for the first page
+     * @param limit      maximum number of rows to return
+     */
+    List<BookingSummary> findSummaries(BookingFilter filter, LocalDateTime afterStart, Long afterId, int limit);
+}
@@ -0,0 +1,63 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination for the booking listing. Only the predicates that are actually set go into the
+ * query, so the database can seek straight into the matching (…, startTime, id) index instead of
+ * evaluating "param is null or …" for every row; the page then ends after {@code limit} index entries.
+ */
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingSummary> findSummaries(BookingFilter filter, LocalDateTime afterStart, Long afterId, int limit) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.userId() != null) {
+            predicates.add("b.userId = :userId");
+            params.put("userId", filter.userId());
+        }
+        if (filter.amenityId() != null) {
+            predicates.add("b.amenityId = :amenityId");
+            params.put("amenityId", filter.amenityId());
+        }
+        if (filter.from() != null) {
+            predicates.add("b.startTime >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            predicates.add("b.startTime < :to");
+            params.put("to", filter.to());
+        }
+        if (afterStart != null) {
+            // Same as (startTime, id) > (afterStart, afterId), spelled with a plain range on startTime the index can seek on
+            predicates.add("b.startTime >= :afterStart and (b.startTime > :afterStart or b.id > :afterId)");
+            params.put("afterStart", afterStart);
+            params.put("afterId", afterId);
+        }
+
+        StringBuilder jpql = new StringBuilder("select new com.example.bookingservice.dto.BookingSummary("
+                + "b.id, b.userId, b.amenityId, b.startTime, b.endTime, b.status) from Booking b");
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        jpql.append(" order by b.startTime, b.id");
+
+        TypedQuery<BookingSummary> query = entityManager.createQuery(jpql.toString(), BookingSummary.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
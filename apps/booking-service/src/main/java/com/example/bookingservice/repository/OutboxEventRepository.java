@@ -0,0 +1,28 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest unsent events. Not locked: only the relay holding the lease reads them.
+     */
+    @Query("select e from OutboxEvent e where e.sentAt is null order by e.id")
+    List<OutboxEvent> findUnsent(Pageable page);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.sentAt = :sentAt where e.id in :ids")
+    int markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
@@ -0,0 +1,21 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.model.OutboxRelayLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface OutboxRelayLeaseRepository extends JpaRepository<OutboxRelayLease, Long> {
+
+    /**
+     * Takes or renews the lease for {@code owner} if it holds it already or it has expired.
+     *
+     * @return 1 if {@code owner} holds the lease until {@code until}, 0 if another instance does
+     */
+    @Modifying
+    @Query("update OutboxRelayLease l set l.owner = :owner, l.expiresAt = :until where l.id = :id"
+            + " and (l.owner = :owner or l.expiresAt is null or l.expiresAt < :now)")
+    int acquire(Long id, String owner, LocalDateTime now, LocalDateTime until);
+}
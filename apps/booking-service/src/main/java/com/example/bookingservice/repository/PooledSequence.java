@@ -0,0 +1,74 @@
+package com.example.bookingservice.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from a database sequence the way Hibernate's pooled optimizer does: each
+ * {@code next value} call returns the top of a block of {@code allocationSize} ids, so rows written
+ * here and rows written through JPA never share an id. One database call covers a whole block.
+ */
+class PooledSequence {
+
+    private final DatabaseClient databaseClient;
+    private final String name;
+    private final int allocationSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Next unused id and the last id of the current block; empty while next > last
+    private long next = 1;
+    private long last = 0;
+
+    PooledSequence(DatabaseClient databaseClient, String name, int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.name = name;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * {@code count} fresh ids, fetching as many blocks as needed.
+     */
+    Mono<List<Long>> next(int count) {
+        return fill(new ArrayList<>(count), count);
+    }
+
+    private Mono<List<Long>> fill(List<Long> ids, int count) {
+        take(ids, count);
+        if (ids.size() == count) {
+            return Mono.just(ids);
+        }
+        return databaseClient.sql("select next value for " + name)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(hi -> {
+                    // The sequence starts at 1, which has no block below it
+                    refill(Math.max(1, hi - allocationSize + 1), hi);
+                    return fill(ids, count);
+                });
+    }
+
+    private void take(List<Long> ids, int count) {
+        lock.lock();
+        try {
+            while (ids.size() < count && next <= last) {
+                ids.add(next++);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long from, long to) {
+        lock.lock();
+        try {
+            // Whatever is left of the current block is dropped, as Hibernate does
+            next = from;
+            last = to;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
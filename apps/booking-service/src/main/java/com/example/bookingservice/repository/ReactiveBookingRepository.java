@@ -0,0 +1,199 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingSummary;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.BookingSlot;
+import com.example.bookingservice.model.OutboxEvent;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * R2DBC access to the tables JPA maps for Booking, BookingSlot and OutboxEvent, for the reactive
+ * runtime mode. Ids come from the same pooled sequences as the entities, and inserts go out as one
+ * batched statement per table, so a batch of bookings costs a handful of round trips.
+ *
+ * Writes join the caller's R2DBC transaction (see TransactionalOperator); constraint violations
+ * surface as DataIntegrityViolationException, as they do through JPA.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingRepository {
+
+    private static final String INSERT_BOOKING = "insert into booking "
+            + "(id, user_id, amenity_id, start_time, end_time, status, request_key) values ($1, $2, $3, $4, $5, $6, $7)";
+    private static final String INSERT_SLOT = "insert into booking_slot (id, booking_id, amenity_id, slot_start) values ($1, $2, $3, $4)";
+    private static final String INSERT_OUTBOX = "insert into booking_outbox "
+            + "(id, topic, message_key, payload, format, created_at) values ($1, $2, $3, $4, $5, $6)";
+
+    private final DatabaseClient databaseClient;
+    // Allocation sizes match the @SequenceGenerator of each entity
+    private final PooledSequence bookingIds;
+    private final PooledSequence slotIds;
+    private final PooledSequence outboxIds;
+
+    public ReactiveBookingRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.bookingIds = new PooledSequence(databaseClient, "booking_seq", 50);
+        this.slotIds = new PooledSequence(databaseClient, "booking_slot_seq", 200);
+        this.outboxIds = new PooledSequence(databaseClient, "booking_outbox_seq", 50);
+    }
+
+    public Mono<Boolean> existsByRequestKey(String requestKey) {
+        return databaseClient.sql("select 1 from booking where request_key = :key")
+                .bind("key", requestKey)
+                .map(row -> 1)
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Set<String>> findExistingRequestKeys(Collection<String> keys) {
+        return databaseClient.sql("select request_key from booking where request_key in (:keys)")
+                .bind("keys", keys)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collect(HashSet::new, Set::add);
+    }
+
+    /**
+     * Inserts the bookings and their slots, setting each booking's id.
+     *
+     * @return the same bookings, in order
+     */
+    public Mono<List<Booking>> saveAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return Mono.just(bookings);
+        }
+        List<BookingSlot> slots = new ArrayList<>();
+        List<Booking> owners = new ArrayList<>();
+        for (Booking booking : bookings) {
+            for (BookingSlot slot : booking.getSlots()) {
+                slots.add(slot);
+                owners.add(booking);
+            }
+        }
+        return Mono.zip(bookingIds.next(bookings.size()), slotIds.next(slots.size()))
+                .flatMap(ids -> {
+                    for (int i = 0; i < bookings.size(); i++) {
+                        bookings.get(i).setId(ids.getT1().get(i));
+                    }
+                    List<Long> slotIdList = ids.getT2();
+                    // Bookings first: the slots reference them
+                    return insert(INSERT_BOOKING, bookings, (statement, booking) -> {
+                                statement.bind(0, booking.getId()).bind(1, booking.getUserId())
+                                        .bind(2, booking.getAmenityId()).bind(3, booking.getStartTime())
+                                        .bind(4, booking.getEndTime()).bind(5, booking.getStatus());
+                                bindNullable(statement, 6, booking.getRequestKey(), String.class);
+                            })
+                            .then(insert(INSERT_SLOT, indexes(slots.size()), (statement, i) -> statement
+                                    .bind(0, slotIdList.get(i)).bind(1, owners.get(i).getId())
+                                    .bind(2, slots.get(i).getAmenityId()).bind(3, slots.get(i).getSlotStart())));
+                })
+                .thenReturn(bookings);
+    }
+
+    public Mono<Void> saveOutbox(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        return outboxIds.next(events.size())
+                .flatMap(ids -> insert(INSERT_OUTBOX, indexes(events.size()), (statement, i) -> {
+                    OutboxEvent event = events.get(i);
+                    statement.bind(0, ids.get(i)).bind(1, event.getTopic()).bind(2, event.getMessageKey())
+                            .bind(3, event.getPayload());
+                    bindNullable(statement, 4, event.getFormat(), String.class);
+                    statement.bind(5, event.getCreatedAt());
+                }));
+    }
+
+    /**
+     * Same listing as BookingRepository.findSummaries: only the predicates that are set, ordered by (startTime, id).
+     */
+    public Flux<BookingSummary> findSummaries(BookingFilter filter, LocalDateTime afterStart, Long afterId, int limit) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.userId() != null) {
+            predicates.add("user_id = :userId");
+            params.put("userId", filter.userId());
+        }
+        if (filter.amenityId() != null) {
+            predicates.add("amenity_id = :amenityId");
+            params.put("amenityId", filter.amenityId());
+        }
+        if (filter.from() != null) {
+            predicates.add("start_time >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            predicates.add("start_time < :to");
+            params.put("to", filter.to());
+        }
+        if (afterStart != null) {
+            predicates.add("start_time >= :afterStart and (start_time > :afterStart or id > :afterId)");
+            params.put("afterStart", afterStart);
+            params.put("afterId", afterId);
+        }
+
+        StringBuilder sql = new StringBuilder("select id, user_id, amenity_id, start_time, end_time, status from booking");
+        if (!predicates.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", predicates));
+        }
+        sql.append(" order by start_time, id limit :limit");
+        params.put("limit", limit);
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(params)
+                .map(row -> new BookingSummary(row.get("id", Long.class), row.get("user_id", Long.class),
+                        row.get("amenity_id", String.class), row.get("start_time", LocalDateTime.class),
+                        row.get("end_time", LocalDateTime.class), row.get("status", String.class)))
+                .all();
+    }
+
+    /**
+     * Runs {@code sql} once per item as a single batched statement.
+     */
+    private <T> Mono<Void> insert(String sql, List<T> items, BiConsumer<Statement, T> binder) {
+        if (items.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany((Connection connection) -> {
+            Statement statement = connection.createStatement(sql);
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                binder.accept(statement, items.get(i));
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+
+    private static List<Integer> indexes(int size) {
+        return IntStream.range(0, size).boxed().toList();
+    }
+
+    private static void bindNullable(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.Amenity;
+
+import java.util.Optional;
+
+/**
+ * Source of truth for amenities. Only {@link AmenityRegistry} calls it; everything else reads through the cache.
+ */
+public interface AmenityLookup {
+
+    Optional<Amenity> findAmenity(String id);
+}
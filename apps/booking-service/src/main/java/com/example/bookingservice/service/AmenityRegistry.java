@@ -0,0 +1,34 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import com.example.bookingservice.model.Amenity;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cached view of amenities for booking validation; see {@link DirectoryCache}. Hit rates are
+ * published as cache.gets (tag cache=amenity-registry).
+ */
+@Component
+public class AmenityRegistry {
+
+    private final DirectoryCache<String, Amenity> cache;
+
+    public AmenityRegistry(AmenityLookup lookup, BookingDirectoryProperties properties, MeterRegistry meterRegistry) {
+        this.cache = new DirectoryCache<>("amenity-registry", properties.amenities(), lookup::findAmenity, meterRegistry);
+    }
+
+    public Optional<Amenity> find(String amenityId) {
+        return cache.get(amenityId);
+    }
+
+    public void invalidate(String amenityId) {
+        cache.invalidate(amenityId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.BookingSlot;
+import com.example.bookingservice.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory view of upcoming bookings per amenity, used to reject overlaps without querying the database.
+ *
+ * Each amenity has a sorted map of booked intervals (start -> end, rounded outwards to 15-minute cells),
+ * so an overlap check is two neighbour lookups. Amenities map onto a fixed set of striped locks:
+ * callers hold the stripe while they check, write and record a booking, and unrelated amenities
+ * rarely share a stripe. Bookings written by other instances are only seen after a reload, so the
+ * unique slot constraint in the database stays the final guard.
+ */
+@Component
+public class AmenityScheduleIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AmenityScheduleIndex.class);
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Map<String, NavigableMap<LocalDateTime, LocalDateTime>> booked = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public AmenityScheduleIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Runs before the Kafka listeners start, so the first batch already sees existing bookings
+    @PostConstruct
+    public void load() {
+        int count = 0;
+        for (Booking booking : bookingRepository.findByEndTimeAfter(LocalDateTime.now())) {
+            withLocks(List.of(booking.getAmenityId()), () -> booked.computeIfAbsent(booking.getAmenityId(), id -> new TreeMap<>())
+                    .put(BookingSlot.floorToCell(booking.getStartTime()), BookingSlot.ceilToCell(booking.getEndTime())));
+            count++;
+        }
+        logger.info("Loaded {} upcoming bookings into the schedule index", count);
+    }
+
+    /**
+     * Runs {@code action} holding the stripes of all given amenities, taken in a fixed order so
+     * concurrent batches cannot deadlock.
+     */
+    public <T> T withLocks(Collection<String> amenityIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String amenityId : amenityIds) {
+            indexes.add(Math.floorMod(amenityId.hashCode(), STRIPES));
+        }
+        Deque<ReentrantLock> held = new ArrayDeque<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                held.push(stripes[index]);
+            }
+            return action.get();
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+        }
+    }
+
+    /**
+     * Records the interval if it does not overlap a known booking. Callers must hold the amenity's stripe.
+     *
+     * @return false if the interval overlaps an existing booking
+     */
+    public boolean tryReserve(String amenityId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = booked.computeIfAbsent(amenityId, id -> new TreeMap<>());
+        LocalDateTime from = BookingSlot.floorToCell(start);
+        LocalDateTime to = BookingSlot.ceilToCell(end);
+        Map.Entry<LocalDateTime, LocalDateTime> before = intervals.floorEntry(from);
+        if (before != null && before.getValue().isAfter(from)) {
+            return false;
+        }
+        LocalDateTime nextStart = intervals.higherKey(from);
+        if (nextStart != null && nextStart.isBefore(to)) {
+            return false;
+        }
+        intervals.put(from, to);
+        // Finished bookings can no longer conflict with anything
+        LocalDateTime now = LocalDateTime.now();
+        intervals.headMap(now).entrySet().removeIf(interval -> interval.getValue().isBefore(now));
+        return true;
+    }
+
+    /**
+     * Drops an interval recorded by {@link #tryReserve} whose booking was not written. Callers must hold the stripe.
+     */
+    public void release(String amenityId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = booked.get(amenityId);
+        if (intervals != null) {
+            intervals.remove(BookingSlot.floorToCell(start), BookingSlot.ceilToCell(end));
+        }
+    }
+
+    /**
+     * Rebuilds one amenity from the database, after the slot constraint showed another instance booked it.
+     */
+    public void reload(String amenityId) {
+        withLocks(List.of(amenityId), () -> {
+            NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+            for (Booking booking : bookingRepository.findByAmenityIdAndEndTimeAfter(amenityId, LocalDateTime.now())) {
+                intervals.put(BookingSlot.floorToCell(booking.getStartTime()), BookingSlot.ceilToCell(booking.getEndTime()));
+            }
+            booked.put(amenityId, intervals);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bookingservice.service;
+
+/**
+ * The requested time overlaps an existing booking of the same amenity
+ */
+public class BookingConflictException extends BookingRejectedException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
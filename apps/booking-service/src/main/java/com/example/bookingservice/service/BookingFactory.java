@@ -0,0 +1,75 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.Amenity;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.BookingSlot;
+import com.example.bookingservice.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Validates a booking request and builds the unsaved booking. Shared by the blocking and reactive
+ * services. Users and amenities come from cached directories, but a miss calls the UserLookup or
+ * AmenityLookup, which may block on its store, so reactive callers run it on a bounded-elastic
+ * thread, never on an event loop.
+ */
+@Component
+public class BookingFactory {
+
+    private final UserDirectory userDirectory;
+    private final AmenityRegistry amenityRegistry;
+    // Every 15 minutes of a booking is a slot row written under the amenity's lock, so length is capped
+    private final Duration maxDuration;
+
+    public BookingFactory(UserDirectory userDirectory, AmenityRegistry amenityRegistry,
+                          @Value("${booking.max-duration:24h}") Duration maxDuration) {
+        this.userDirectory = userDirectory;
+        this.amenityRegistry = amenityRegistry;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * @throws BookingRejectedException if the user, the amenity or the times do not allow the booking
+     */
+    public Booking newBooking(String requestKey, Long userId, String amenityId, LocalDateTime startTime, LocalDateTime endTime) {
+        // 1. Validate User (cached; no lookup on a hit)
+        User user = userDirectory.find(userId)
+                .orElseThrow(() -> new BookingRejectedException("Unknown user: " + userId));
+        if (!user.isMaintenanceFeePaid()) {
+            throw new BookingRejectedException("Maintenance fee not paid for user: " + userId);
+        }
+
+        // 2. Validate Amenity (cached; no lookup on a hit)
+        Amenity amenity = amenityRegistry.find(amenityId)
+                .orElseThrow(() -> new BookingRejectedException("Unknown amenity: " + amenityId));
+        if (!amenity.isAvailable()) {
+            throw new BookingRejectedException("Amenity not available: " + amenityId);
+        }
+
+        if (startTime == null || endTime == null || !endTime.isAfter(startTime)) {
+            throw new BookingRejectedException("Booking end time must be after its start time");
+        }
+        if (Duration.between(startTime, endTime).compareTo(maxDuration) > 0) {
+            throw new BookingRejectedException("Booking may last at most " + maxDuration.toHours() + " hours");
+        }
+
+        // 3. Create Booking
+        Booking booking = new Booking();
+        booking.setUserId(userId);
+        booking.setAmenityId(amenityId);
+        booking.setStartTime(startTime);
+        booking.setEndTime(endTime);
+        booking.setStatus("CONFIRMED");
+        booking.setRequestKey(requestKey);
+        booking.setSlots(BookingSlot.covering(amenityId, startTime, endTime));
+        return booking;
+    }
+
+    static BookingConflictException conflict(String amenityId, LocalDateTime startTime, LocalDateTime endTime) {
+        return new BookingConflictException(
+                "Amenity " + amenityId + " is already booked between " + startTime + " and " + endTime);
+    }
+}
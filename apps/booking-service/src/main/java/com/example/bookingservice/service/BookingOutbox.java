@@ -0,0 +1,74 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.deserializer.BookingWireFormat;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.OutboxEvent;
+import com.example.bookingservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records booking outcomes for the booking-events topic. Callers append inside the transaction that
+ * saves the bookings, so an event exists exactly when its booking does; OutboxRelay publishes them.
+ */
+@Component
+public class BookingOutbox {
+    public static final String TOPIC = "booking-events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public BookingOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                         @Value("${booking.events.wire-format:json}") String wireFormat) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.binary = "binary".equals(wireFormat);
+    }
+
+    public static BookingEvent confirmed(Booking booking) {
+        return new BookingEvent(BookingEvent.BOOKING_CONFIRMED, booking.getId(), booking.getUserId(),
+                booking.getAmenityId(), booking.getStartTime(), booking.getEndTime(), null);
+    }
+
+    public static BookingEvent rejected(BookingCommand command, String reason) {
+        return new BookingEvent(BookingEvent.BOOKING_REJECTED, null, command.userId(),
+                command.amenityId(), command.startTime(), command.endTime(), reason);
+    }
+
+    /**
+     * Stores the events in order, joining the caller's transaction if there is one.
+     */
+    public void append(List<BookingEvent> events) {
+        outboxEventRepository.saveAll(encode(events));
+    }
+
+    /**
+     * The unsaved outbox rows for {@code events}, for callers that write them through another repository.
+     */
+    public List<OutboxEvent> encode(List<BookingEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (BookingEvent event : events) {
+            // Keyed by amenity so events for one amenity stay in order
+            rows.add(binary
+                    ? new OutboxEvent(TOPIC, event.amenityId(), BookingWireFormat.encodeEvent(event), BookingWireFormat.BINARY_V1)
+                    : new OutboxEvent(TOPIC, event.amenityId(), toJson(event), null));
+        }
+        return rows;
+    }
+
+    private byte[] toJson(BookingEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode booking event", e);
+        }
+    }
+}
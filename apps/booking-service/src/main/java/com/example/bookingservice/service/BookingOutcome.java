@@ -0,0 +1,23 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.model.Booking;
+
+/**
+ * What became of one entry of a batch: the saved booking, the reason it was rejected, or
+ * neither when its request key had already been processed.
+ */
+public record BookingOutcome(BookingCommand command, Booking booking, String rejection) {
+
+    public static BookingOutcome booked(BookingCommand command, Booking booking) {
+        return new BookingOutcome(command, booking, null);
+    }
+
+    public static BookingOutcome rejected(BookingCommand command, String reason) {
+        return new BookingOutcome(command, null, reason);
+    }
+
+    public static BookingOutcome duplicate(BookingCommand command) {
+        return new BookingOutcome(command, null, null);
+    }
+}
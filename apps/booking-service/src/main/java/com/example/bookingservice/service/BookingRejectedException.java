@@ -0,0 +1,11 @@
+package com.example.bookingservice.service;
+
+/**
+ * The request was understood but breaks a booking rule; retrying it will not help
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    public BookingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,44 +1,291 @@
 package com.example.bookingservice.service;
 
-import com.example.bookingservice.model.Amenity;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingPage;
+import com.example.bookingservice.dto.BookingSummary;
 import com.example.bookingservice.model.Booking;
-import com.example.bookingservice.model.User;
 import com.example.bookingservice.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BookingService {
+    private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
     private final BookingRepository bookingRepository;
+    private final BookingOutbox outbox;
+    private final ProcessedRequestCache processedRequests;
+    private final AmenityScheduleIndex scheduleIndex;
+    private final BookingFactory bookingFactory;
+    private final TransactionTemplate transactionTemplate;
 
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository, BookingOutbox outbox,
+                          ProcessedRequestCache processedRequests, AmenityScheduleIndex scheduleIndex,
+                          BookingFactory bookingFactory, TransactionTemplate transactionTemplate) {
         this.bookingRepository = bookingRepository;
+        this.outbox = outbox;
+        this.processedRequests = processedRequests;
+        this.scheduleIndex = scheduleIndex;
+        this.bookingFactory = bookingFactory;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Booking createBooking(Long userId, String amenityId, LocalDateTime startTime, LocalDateTime endTime) {
-        // 1. Validate User (Mock)
-        User user = new User(userId, "John Doe", true); // Mock user fetch
-        if (!user.isMaintenanceFeePaid()) {
-            throw new RuntimeException("Maintenance fee not paid for user: " + userId);
+        return createBooking(null, userId, amenityId, startTime, endTime);
+    }
+
+    /**
+     * Creates the booking unless a booking for {@code requestKey} already exists.
+     *
+     * @param requestKey dedupe key of the request, or null to always create
+     * @return the new booking, or empty if the request was a duplicate
+     */
+    public Optional<Booking> createBookingIfAbsent(String requestKey, Long userId, String amenityId,
+                                                   LocalDateTime startTime, LocalDateTime endTime) {
+        if (requestKey == null) {
+            return Optional.of(createBooking(userId, amenityId, startTime, endTime));
+        }
+        // Cheap checks first: this instance's recent keys, then the unique column
+        if (processedRequests.contains(requestKey) || bookingRepository.existsByRequestKey(requestKey)) {
+            processedRequests.add(requestKey);
+            logger.info("Skipping duplicate booking request {}", requestKey);
+            return Optional.empty();
+        }
+        try {
+            Booking booking = createBooking(requestKey, userId, amenityId, startTime, endTime);
+            processedRequests.add(requestKey);
+            return Optional.of(booking);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent delivery of the same request
+            processedRequests.add(requestKey);
+            logger.info("Skipping duplicate booking request {} (concurrent insert)", requestKey);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Creates a batch of bookings with one duplicate lookup and one batched insert.
+     * Entries that fail validation, overlap an existing booking or repeat an already processed
+     * request key are skipped; the first two are recorded as BookingRejected events.
+     *
+     * @return the bookings that were created
+     */
+    public List<Booking> createBookingsIfAbsent(List<BookingCommand> commands) {
+        // Keep the first entry per key; later ones in the same batch are replays
+        Map<String, BookingCommand> keyed = new LinkedHashMap<>();
+        List<BookingCommand> unkeyed = new ArrayList<>();
+        for (BookingCommand command : commands) {
+            if (command.requestKey() == null) {
+                unkeyed.add(command);
+            } else if (!processedRequests.contains(command.requestKey())) {
+                keyed.putIfAbsent(command.requestKey(), command);
+            }
+        }
+        if (!keyed.isEmpty()) {
+            Set<String> existing = bookingRepository.findExistingRequestKeys(keyed.keySet());
+            existing.forEach(processedRequests::add);
+            keyed.keySet().removeAll(existing);
+        }
+
+        List<BookingCommand> accepted = new ArrayList<>(keyed.values());
+        accepted.addAll(unkeyed);
+        List<Booking> created = new ArrayList<>(accepted.size());
+        for (BookingOutcome outcome : saveBatch(accepted, true)) {
+            if (outcome.booking() != null) {
+                created.add(outcome.booking());
+                if (outcome.command().requestKey() != null) {
+                    processedRequests.add(outcome.command().requestKey());
+                }
+            }
         }
+        return created;
+    }
+
+    /**
+     * Creates the bookings of one API call: every entry is checked in a single pass and the accepted
+     * ones are saved in one batched transaction. Rejections are returned to the caller, not published.
+     *
+     * @return one outcome per command, in the same order
+     */
+    public List<BookingOutcome> createBookings(List<BookingCommand> commands) {
+        return saveBatch(commands, false);
+    }
+
+    /**
+     * One page of bookings matching {@code filter}, in (startTime, id) order.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public BookingPage listBookings(BookingFilter filter, String cursor, int size) {
+        BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
+        // One extra row tells whether another page follows, without a count query
+        List<BookingSummary> rows = bookingRepository.findSummaries(filter,
+                after == null ? null : after.startTime(), after == null ? null : after.id(), size + 1);
+        return page(rows, size);
+    }
 
-        // 2. Validate Amenity (Mock)
-        Amenity amenity = new Amenity(amenityId, "Gym", true); // Mock amenity fetch
-        if (!amenity.isAvailable()) {
-            throw new RuntimeException("Amenity not available: " + amenityId);
+    /**
+     * The page for up to {@code size + 1} rows read in listing order.
+     */
+    static BookingPage page(List<BookingSummary> rows, int size) {
+        if (rows.size() <= size) {
+            return new BookingPage(rows, null);
         }
+        BookingSummary last = rows.get(size - 1);
+        return new BookingPage(List.copyOf(rows.subList(0, size)), new BookingCursor(last.startTime(), last.id()).encode());
+    }
+
+    private Booking createBooking(String requestKey, Long userId, String amenityId, LocalDateTime startTime, LocalDateTime endTime) {
+        Booking booking = bookingFactory.newBooking(requestKey, userId, amenityId, startTime, endTime);
+
+        // 4. Reserve the time and save, holding the amenity's stripe so the check and the write are atomic here
+        Booking saved = scheduleIndex.withLocks(List.of(amenityId), () -> {
+            if (!scheduleIndex.tryReserve(amenityId, startTime, endTime)) {
+                throw BookingFactory.conflict(amenityId, startTime, endTime);
+            }
+            try {
+                // 5. The BookingConfirmed event commits with the booking, so other services (catalog
+                // availability, notifications) hear about exactly the bookings that exist
+                return transactionTemplate.execute(status -> {
+                    Booking result = bookingRepository.save(booking);
+                    outbox.append(List.of(BookingOutbox.confirmed(result)));
+                    return result;
+                });
+            } catch (DataIntegrityViolationException e) {
+                scheduleIndex.release(amenityId, startTime, endTime);
+                if (requestKey != null && bookingRepository.existsByRequestKey(requestKey)) {
+                    throw e; // duplicate request, handled by the caller
+                }
+                // The slot constraint caught a booking this instance has not seen
+                scheduleIndex.reload(amenityId);
+                throw BookingFactory.conflict(amenityId, startTime, endTime);
+            } catch (RuntimeException e) {
+                // Nothing was saved, so the interval must not outlive the failed transaction
+                scheduleIndex.release(amenityId, startTime, endTime);
+                throw e;
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * Records a BookingRejected event for a request that will not be retried.
+     */
+    public void recordRejection(BookingCommand command, String reason) {
+        outbox.append(List.of(BookingOutbox.rejected(command, reason)));
+    }
 
-        // 3. Create Booking
-        Booking booking = new Booking();
-        booking.setUserId(userId);
-        booking.setAmenityId(amenityId);
-        booking.setStartTime(startTime);
-        booking.setEndTime(endTime);
-        booking.setStatus("CONFIRMED");
+    /**
+     * Validates, reserves and saves {@code commands} under the locks of their amenities, with the
+     * bookings and their events in one transaction. Earlier entries win overlaps within the batch.
+     *
+     * @param recordRejections whether rejected entries also get a BookingRejected event
+     */
+    private List<BookingOutcome> saveBatch(List<BookingCommand> commands, boolean recordRejections) {
+        BookingOutcome[] outcomes = new BookingOutcome[commands.size()];
+        List<Booking> bookings = new ArrayList<>(commands.size());
+        List<Integer> positions = new ArrayList<>(commands.size());
+        List<BookingEvent> invalid = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            BookingCommand command = commands.get(i);
+            try {
+                bookings.add(bookingFactory.newBooking(command.requestKey(), command.userId(), command.amenityId(),
+                        command.startTime(), command.endTime()));
+                positions.add(i);
+            } catch (BookingRejectedException e) {
+                logger.warn("Skipping invalid booking request {}: {}", command.requestKey(), e.getMessage());
+                outcomes[i] = BookingOutcome.rejected(command, e.getMessage());
+                invalid.add(BookingOutbox.rejected(command, e.getMessage()));
+            }
+        }
+        if (bookings.isEmpty()) {
+            if (recordRejections && !invalid.isEmpty()) {
+                outbox.append(invalid);
+            }
+            return List.of(outcomes);
+        }
 
-        // 4. Save to Repository
-        return bookingRepository.save(booking);
+        Set<String> amenityIds = new HashSet<>();
+        bookings.forEach(booking -> amenityIds.add(booking.getAmenityId()));
+        try {
+            scheduleIndex.withLocks(amenityIds, () -> {
+                // Checked in batch order, so the first of two overlapping entries wins
+                List<Booking> reserved = new ArrayList<>(bookings.size());
+                List<Integer> reservedPositions = new ArrayList<>(bookings.size());
+                List<BookingEvent> events = new ArrayList<>(recordRejections ? invalid : List.of());
+                for (int j = 0; j < bookings.size(); j++) {
+                    Booking booking = bookings.get(j);
+                    BookingCommand command = commands.get(positions.get(j));
+                    if (scheduleIndex.tryReserve(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime())) {
+                        reserved.add(booking);
+                        reservedPositions.add(positions.get(j));
+                    } else {
+                        String reason = BookingFactory.conflict(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime()).getMessage();
+                        logger.info("Rejecting booking request {}: {}", booking.getRequestKey(), reason);
+                        outcomes[positions.get(j)] = BookingOutcome.rejected(command, reason);
+                        if (recordRejections) {
+                            events.add(BookingOutbox.rejected(command, reason));
+                        }
+                    }
+                }
+                if (reserved.isEmpty() && events.isEmpty()) {
+                    return null;
+                }
+                try {
+                    // One transaction for the bookings and their events, flushed as JDBC batches of hibernate.jdbc.batch_size
+                    List<Booking> saved = transactionTemplate.execute(status -> {
+                        List<Booking> result = reserved.isEmpty() ? List.<Booking>of() : bookingRepository.saveAll(reserved);
+                        result.forEach(booking -> events.add(BookingOutbox.confirmed(booking)));
+                        outbox.append(events);
+                        return result;
+                    });
+                    for (int k = 0; k < saved.size(); k++) {
+                        int position = reservedPositions.get(k);
+                        outcomes[position] = BookingOutcome.booked(commands.get(position), saved.get(k));
+                    }
+                    return null;
+                } catch (RuntimeException e) {
+                    // Rolled back, whatever the cause: free the intervals so a retry does not conflict with itself
+                    reserved.forEach(booking -> scheduleIndex.release(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime()));
+                    throw e;
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent delivery or another instance got there first; sort it out one by one
+            logger.info("Batch insert hit a unique constraint, retrying {} bookings individually", bookings.size());
+            if (recordRejections && !invalid.isEmpty()) {
+                outbox.append(invalid);
+            }
+            for (int position : positions) {
+                BookingCommand command = commands.get(position);
+                try {
+                    outcomes[position] = createBookingIfAbsent(command.requestKey(), command.userId(), command.amenityId(),
+                            command.startTime(), command.endTime())
+                            .map(booking -> BookingOutcome.booked(command, booking))
+                            .orElseGet(() -> BookingOutcome.duplicate(command));
+                } catch (BookingConflictException conflict) {
+                    logger.info("Rejecting booking request {}: {}", command.requestKey(), conflict.getMessage());
+                    outcomes[position] = BookingOutcome.rejected(command, conflict.getMessage());
+                    if (recordRejections) {
+                        outbox.append(List.of(BookingOutbox.rejected(command, conflict.getMessage())));
+                    }
+                }
+            }
+        }
+        return List.of(outcomes);
     }
 }
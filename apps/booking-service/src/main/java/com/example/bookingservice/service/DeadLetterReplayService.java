@@ -0,0 +1,122 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.producer.BookingRetryProducer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves records from booking-requests-dlt back onto booking-requests, typically after the cause has been fixed.
+ *
+ * Reads with its own consumer group, so the group's committed offsets mark what has already been
+ * replayed. Replayed requests keep their request and idempotency keys, so ones that did get booked
+ * in the meantime are dropped as duplicates.
+ */
+@Service
+public class DeadLetterReplayService {
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayService.class);
+    static final String REPLAY_GROUP = "booking-service-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public DeadLetterReplayService(ConsumerFactory<?, ?> consumerFactory, KafkaTemplate<String, byte[]> kafkaTemplate) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    /**
+     * Republishes up to {@code max} dead-lettered records, oldest first, and commits past them.
+     *
+     * @return how many records were replayed
+     * @throws IllegalStateException if another replay is in progress
+     * @throws KafkaException if the topics cannot be read or written; nothing is committed then
+     */
+    public int replay(int max) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("A dead-letter replay is already running");
+        }
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(BookingRetryProducer.DLT_TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            while (sends.size() < max) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (sends.size() == max) {
+                        break;
+                    }
+                    sends.add(kafkaTemplate.send(toSourceTopic(record)));
+                    replayed.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            consumer.commitSync(replayed);
+            logger.info("Replayed {} dead-lettered booking requests", sends.size());
+            return sends.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying dead-lettered booking requests", e);
+        } catch (ExecutionException | TimeoutException | KafkaException e) {
+            throw new KafkaException("Dead-letter replay failed: " + e.getMessage(), e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private static ProducerRecord<String, byte[]> toSourceTopic(ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, byte[]> replay = new ProducerRecord<>(BookingRetryProducer.SOURCE_TOPIC, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!BookingRetryProducer.isPipelineHeader(header.key())) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String, byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return (Consumer<String, byte[]>) consumerFactory.createConsumer(REPLAY_GROUP, null, "-dlt-replay", overrides);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of a directory lookup.
+ *
+ * Hits never leave the process. An entry read after refreshAfter is reloaded in the background
+ * while the cached value keeps being served, so busy ids are not reloaded on the request path.
+ * Unknown ids are cached as empty for the shorter negativeTtl. Change events evict single ids.
+ */
+class DirectoryCache<K, V> {
+
+    private final LoadingCache<K, Optional<V>> cache;
+
+    DirectoryCache(String name, BookingDirectoryProperties.Cache properties, Function<K, Optional<V>> loader,
+                   MeterRegistry meterRegistry) {
+        this(name, properties, loader, meterRegistry, Ticker.systemTicker(), null);
+    }
+
+    DirectoryCache(String name, BookingDirectoryProperties.Cache properties, Function<K, Optional<V>> loader,
+                   MeterRegistry meterRegistry, Ticker ticker, Executor refreshExecutor) {
+        Caffeine<K, Optional<V>> builder = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfter(DirectoryCache.<K, V>expiry(properties))
+                .refreshAfterWrite(properties.refreshAfter())
+                .ticker(ticker)
+                .recordStats();
+        if (refreshExecutor != null) {
+            builder.executor(refreshExecutor);
+        }
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, builder.build(loader::apply), name);
+    }
+
+    Optional<V> get(K id) {
+        return id == null ? Optional.empty() : cache.get(id);
+    }
+
+    void invalidate(K id) {
+        cache.invalidate(id);
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static <K, V> Expiry<K, Optional<V>> expiry(BookingDirectoryProperties.Cache properties) {
+        long ttl = properties.ttl().toNanos();
+        long negativeTtl = properties.negativeTtl().toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                return value.isPresent() ? ttl : negativeTtl;
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                // A refresh starts a new lifetime, sized by what it found
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded set of request keys this instance has already turned into bookings (or seen as
+ * duplicates), so replays are dropped without a database round trip. The bookings table's unique
+ * request key remains the source of truth for keys that have been evicted or handled elsewhere.
+ *
+ * Backed by a Caffeine cache: every listener lane goes through here, and its reads take no lock,
+ * so lanes do not contend (or, on virtual threads, pin their carrier) on a shared monitor.
+ */
+@Component
+public class ProcessedRequestCache {
+
+    private final Cache<String, Boolean> keys;
+
+    public ProcessedRequestCache(@Value("${booking.idempotency.cache-size:10000}") int maxSize) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public boolean contains(String requestKey) {
+        return keys.getIfPresent(requestKey) != null;
+    }
+
+    public void add(String requestKey) {
+        keys.put(requestKey, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingPage;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.repository.ReactiveBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of BookingService for the reactive runtime mode, with the same rules and
+ * outcomes. Validation and the overlap check stay in memory (BookingFactory, AmenityScheduleIndex);
+ * bookings and their outbox events are written through R2DBC in one transaction. BookingFactory
+ * can block on a directory cache miss, so both run on bounded-elastic threads, off the event loop.
+ *
+ * The schedule index's striped locks are held only for the in-memory reservation, never across a
+ * database call: an interval is reserved first and released again if the write fails, so a request
+ * for the same slot arriving meanwhile is rejected as it would be once the write commits.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveBookingService.class);
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final BookingOutbox outbox;
+    private final ProcessedRequestCache processedRequests;
+    private final AmenityScheduleIndex scheduleIndex;
+    private final BookingFactory bookingFactory;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveBookingService(ReactiveBookingRepository bookingRepository, BookingOutbox outbox,
+                                  ProcessedRequestCache processedRequests, AmenityScheduleIndex scheduleIndex,
+                                  BookingFactory bookingFactory, TransactionalOperator transactionalOperator) {
+        this.bookingRepository = bookingRepository;
+        this.outbox = outbox;
+        this.processedRequests = processedRequests;
+        this.scheduleIndex = scheduleIndex;
+        this.bookingFactory = bookingFactory;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Booking> createBooking(Long userId, String amenityId, LocalDateTime startTime, LocalDateTime endTime) {
+        return createBooking(null, userId, amenityId, startTime, endTime);
+    }
+
+    /**
+     * Same as BookingService.createBookingsIfAbsent: one duplicate lookup and one batched insert,
+     * with rejected entries recorded as BookingRejected events.
+     *
+     * @return the bookings that were created
+     */
+    public Mono<List<Booking>> createBookingsIfAbsent(List<BookingCommand> commands) {
+        Map<String, BookingCommand> keyed = new LinkedHashMap<>();
+        List<BookingCommand> unkeyed = new ArrayList<>();
+        for (BookingCommand command : commands) {
+            if (command.requestKey() == null) {
+                unkeyed.add(command);
+            } else if (!processedRequests.contains(command.requestKey())) {
+                keyed.putIfAbsent(command.requestKey(), command);
+            }
+        }
+        Mono<Set<String>> existing = keyed.isEmpty() ? Mono.just(Set.of()) : bookingRepository.findExistingRequestKeys(keyed.keySet());
+        return existing.flatMap(keys -> {
+            keys.forEach(processedRequests::add);
+            keyed.keySet().removeAll(keys);
+            List<BookingCommand> accepted = new ArrayList<>(keyed.values());
+            accepted.addAll(unkeyed);
+            return saveBatch(accepted, true);
+        }).map(outcomes -> {
+            List<Booking> created = new ArrayList<>(outcomes.size());
+            for (BookingOutcome outcome : outcomes) {
+                if (outcome.booking() != null) {
+                    created.add(outcome.booking());
+                    if (outcome.command().requestKey() != null) {
+                        processedRequests.add(outcome.command().requestKey());
+                    }
+                }
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Same as BookingService.createBookings: rejections are returned to the caller, not published.
+     *
+     * @return one outcome per command, in the same order
+     */
+    public Mono<List<BookingOutcome>> createBookings(List<BookingCommand> commands) {
+        return saveBatch(commands, false);
+    }
+
+    /**
+     * One page of bookings matching {@code filter}, in (startTime, id) order.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public Mono<BookingPage> listBookings(BookingFilter filter, String cursor, int size) {
+        return Mono.defer(() -> {
+            BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
+            return bookingRepository.findSummaries(filter,
+                    after == null ? null : after.startTime(), after == null ? null : after.id(), size + 1)
+                    .collectList()
+                    .map(rows -> BookingService.page(rows, size));
+        });
+    }
+
+    private Mono<Booking> createBooking(String requestKey, Long userId, String amenityId,
+                                        LocalDateTime startTime, LocalDateTime endTime) {
+        return Mono.defer(() -> {
+            Booking booking = bookingFactory.newBooking(requestKey, userId, amenityId, startTime, endTime);
+            boolean reserved = scheduleIndex.withLocks(List.of(amenityId),
+                    () -> scheduleIndex.tryReserve(amenityId, startTime, endTime));
+            if (!reserved) {
+                return Mono.error(BookingFactory.conflict(amenityId, startTime, endTime));
+            }
+            return save(List.of(booking), new ArrayList<>())
+                    .map(saved -> saved.get(0))
+                    // Nothing was saved, whatever the cause: the interval must not outlive the failed write
+                    .doOnError(e -> release(List.of(booking)))
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        Mono<Boolean> duplicate = requestKey == null ? Mono.just(false) : bookingRepository.existsByRequestKey(requestKey);
+                        return duplicate.flatMap(isDuplicate -> isDuplicate
+                                ? Mono.error(e) // duplicate request, handled by the caller
+                                // The slot constraint caught a booking this instance has not seen
+                                : reload(amenityId).then(Mono.error(BookingFactory.conflict(amenityId, startTime, endTime))));
+                    });
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * @return the new booking, or empty if the request was a duplicate
+     */
+    private Mono<Booking> createBookingIfAbsent(BookingCommand command) {
+        String requestKey = command.requestKey();
+        Mono<Booking> create = createBooking(requestKey, command.userId(), command.amenityId(),
+                command.startTime(), command.endTime());
+        if (requestKey == null) {
+            return create;
+        }
+        if (processedRequests.contains(requestKey)) {
+            logger.info("Skipping duplicate booking request {}", requestKey);
+            return Mono.empty();
+        }
+        return bookingRepository.existsByRequestKey(requestKey).flatMap(exists -> {
+            if (exists) {
+                processedRequests.add(requestKey);
+                logger.info("Skipping duplicate booking request {}", requestKey);
+                return Mono.empty();
+            }
+            return create
+                    .doOnNext(booking -> processedRequests.add(requestKey))
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        // Lost a race with a concurrent delivery of the same request
+                        processedRequests.add(requestKey);
+                        logger.info("Skipping duplicate booking request {} (concurrent insert)", requestKey);
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    /**
+     * Reactive form of BookingService.saveBatch: validate and reserve in one pass, then one transaction
+     * for the bookings and their events. A unique-constraint failure falls back to one booking at a time.
+     */
+    private Mono<List<BookingOutcome>> saveBatch(List<BookingCommand> commands, boolean recordRejections) {
+        return Mono.defer(() -> {
+            BookingOutcome[] outcomes = new BookingOutcome[commands.size()];
+            List<Booking> bookings = new ArrayList<>(commands.size());
+            List<Integer> positions = new ArrayList<>(commands.size());
+            List<BookingEvent> invalid = new ArrayList<>();
+            for (int i = 0; i < commands.size(); i++) {
+                BookingCommand command = commands.get(i);
+                try {
+                    bookings.add(bookingFactory.newBooking(command.requestKey(), command.userId(), command.amenityId(),
+                            command.startTime(), command.endTime()));
+                    positions.add(i);
+                } catch (BookingRejectedException e) {
+                    logger.warn("Skipping invalid booking request {}: {}", command.requestKey(), e.getMessage());
+                    outcomes[i] = BookingOutcome.rejected(command, e.getMessage());
+                    invalid.add(BookingOutbox.rejected(command, e.getMessage()));
+                }
+            }
+
+            Set<String> amenityIds = new HashSet<>();
+            bookings.forEach(booking -> amenityIds.add(booking.getAmenityId()));
+            List<Booking> reserved = new ArrayList<>(bookings.size());
+            List<Integer> reservedPositions = new ArrayList<>(bookings.size());
+            List<BookingEvent> events = new ArrayList<>(recordRejections ? invalid : List.of());
+            scheduleIndex.withLocks(amenityIds, () -> {
+                // Checked in batch order, so the first of two overlapping entries wins
+                for (int j = 0; j < bookings.size(); j++) {
+                    Booking booking = bookings.get(j);
+                    BookingCommand command = commands.get(positions.get(j));
+                    if (scheduleIndex.tryReserve(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime())) {
+                        reserved.add(booking);
+                        reservedPositions.add(positions.get(j));
+                    } else {
+                        String reason = BookingFactory.conflict(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime()).getMessage();
+                        logger.info("Rejecting booking request {}: {}", booking.getRequestKey(), reason);
+                        outcomes[positions.get(j)] = BookingOutcome.rejected(command, reason);
+                        if (recordRejections) {
+                            events.add(BookingOutbox.rejected(command, reason));
+                        }
+                    }
+                }
+                return null;
+            });
+            if (reserved.isEmpty() && events.isEmpty()) {
+                return Mono.just(List.of(outcomes));
+            }
+
+            return save(reserved, events)
+                    // Rolled back, whatever the cause: free the intervals so a retry does not conflict with itself
+                    .doOnError(e -> release(reserved))
+                    .map(saved -> {
+                        for (int k = 0; k < saved.size(); k++) {
+                            int position = reservedPositions.get(k);
+                            outcomes[position] = BookingOutcome.booked(commands.get(position), saved.get(k));
+                        }
+                        return List.of(outcomes);
+                    })
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        // A concurrent delivery or another instance got there first; sort it out one by one
+                        logger.info("Batch insert hit a unique constraint, retrying {} bookings individually", bookings.size());
+                        Mono<Void> rejections = recordRejections ? appendEvents(invalid) : Mono.empty();
+                        return rejections.thenMany(Flux.fromIterable(positions).concatMap(position -> {
+                                    BookingCommand command = commands.get(position);
+                                    return createBookingIfAbsent(command)
+                                            .map(booking -> BookingOutcome.booked(command, booking))
+                                            .defaultIfEmpty(BookingOutcome.duplicate(command))
+                                            .onErrorResume(BookingConflictException.class, conflict -> {
+                                                logger.info("Rejecting booking request {}: {}", command.requestKey(), conflict.getMessage());
+                                                BookingOutcome rejected = BookingOutcome.rejected(command, conflict.getMessage());
+                                                return recordRejections
+                                                        ? appendEvents(List.of(BookingOutbox.rejected(command, conflict.getMessage()))).thenReturn(rejected)
+                                                        : Mono.just(rejected);
+                                            })
+                                            .doOnNext(outcome -> outcomes[position] = outcome);
+                                }))
+                                .then(Mono.fromSupplier(() -> List.of(outcomes)));
+                    });
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Inserts {@code bookings} and then {@code events} plus a BookingConfirmed event per booking, in one transaction.
+     */
+    private Mono<List<Booking>> save(List<Booking> bookings, List<BookingEvent> events) {
+        return bookingRepository.saveAll(bookings)
+                .flatMap(saved -> {
+                    saved.forEach(booking -> events.add(BookingOutbox.confirmed(booking)));
+                    return bookingRepository.saveOutbox(outbox.encode(events)).thenReturn(saved);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> appendEvents(List<BookingEvent> events) {
+        return events.isEmpty() ? Mono.empty() : bookingRepository.saveOutbox(outbox.encode(events)).as(transactionalOperator::transactional);
+    }
+
+    private void release(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            scheduleIndex.withLocks(List.of(booking.getAmenityId()), () -> {
+                scheduleIndex.release(booking.getAmenityId(), booking.getStartTime(), booking.getEndTime());
+                return null;
+            });
+        }
+    }
+
+    // The index reloads through JPA, so keep it off the event loop
+    private Mono<Void> reload(String amenityId) {
+        return Mono.fromRunnable(() -> scheduleIndex.reload(amenityId)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
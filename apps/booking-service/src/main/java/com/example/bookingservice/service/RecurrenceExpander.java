@@ -0,0 +1,50 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingRecurrence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a recurrence rule into one booking command per occurrence, in date order.
+ */
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule is incomplete or has more than {@code maxOccurrences} occurrences
+     */
+    public static List<BookingCommand> expand(BookingRecurrence rule, int maxOccurrences) {
+        if (rule.startDate() == null || rule.endDate() == null || rule.startTime() == null || rule.endTime() == null) {
+            throw new IllegalArgumentException("recurrence needs startDate, endDate, startTime and endTime");
+        }
+        if (rule.endDate().isBefore(rule.startDate())) {
+            throw new IllegalArgumentException("recurrence endDate must not be before startDate");
+        }
+        if (!rule.endTime().isAfter(rule.startTime())) {
+            throw new IllegalArgumentException("recurrence endTime must be after startTime");
+        }
+        Set<DayOfWeek> days = rule.daysOfWeek() == null || rule.daysOfWeek().isEmpty()
+                ? EnumSet.allOf(DayOfWeek.class) : EnumSet.copyOf(rule.daysOfWeek());
+
+        List<BookingCommand> commands = new ArrayList<>();
+        for (LocalDate date = rule.startDate(); !date.isAfter(rule.endDate()); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            if (commands.size() == maxOccurrences) {
+                throw new IllegalArgumentException("recurrence has more than " + maxOccurrences + " occurrences");
+            }
+            commands.add(new BookingCommand(null, rule.userId(), rule.amenityId(),
+                    date.atTime(rule.startTime()), date.atTime(rule.endTime())));
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.Amenity;
+import com.example.bookingservice.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Stand-in until residents and amenities have a store of their own: every user has paid the
+ * maintenance fee and every amenity is open. Replace it with a lookup bean against the real store.
+ */
+@Component
+public class StaticDirectoryLookup implements UserLookup, AmenityLookup {
+
+    @Override
+    public Optional<User> findUser(Long id) {
+        return id == null ? Optional.empty() : Optional.of(new User(id, "John Doe", true));
+    }
+
+    @Override
+    public Optional<Amenity> findAmenity(String id) {
+        return id == null || id.isBlank() ? Optional.empty() : Optional.of(new Amenity(id, id, true));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import com.example.bookingservice.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cached view of residents for booking validation; see {@link DirectoryCache}. Hit rates are
+ * published as cache.gets (tag cache=user-directory).
+ */
+@Component
+public class UserDirectory {
+
+    private final DirectoryCache<Long, User> cache;
+
+    public UserDirectory(UserLookup lookup, BookingDirectoryProperties properties, MeterRegistry meterRegistry) {
+        this.cache = new DirectoryCache<>("user-directory", properties.users(), lookup::findUser, meterRegistry);
+    }
+
+    public Optional<User> find(Long userId) {
+        return cache.get(userId);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
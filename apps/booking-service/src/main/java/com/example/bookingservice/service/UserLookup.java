@@ -0,0 +1,13 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.User;
+
+import java.util.Optional;
+
+/**
+ * Source of truth for residents. Only {@link UserDirectory} calls it; everything else reads through the cache.
+ */
+public interface UserLookup {
+
+    Optional<User> findUser(Long id);
+}
@@ -0,0 +1,101 @@
+package com.example.bookingservice.consumer;
+
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import com.example.bookingservice.service.BookingConflictException;
+import com.example.bookingservice.service.BookingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRetryConsumerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 1, 10, 0);
+    private static final BookingRequest REQUEST = new BookingRequest(1L, "GYM", START, START.plusHours(1));
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingRetryProducer retryProducer;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private BookingRetryConsumer retryConsumer;
+
+    @Test
+    void consumeRetry_NotDueYetIsNackedWithRemainingDelay() {
+        ConsumerRecord<String, BookingRequest> record = retryRecord(System.currentTimeMillis() + 30_000);
+
+        retryConsumer.consumeRetry(record, ack);
+
+        verify(ack).nack(argThat((Duration wait) -> wait.toMillis() > 25_000 && wait.toMillis() <= 30_000));
+        verify(ack, never()).acknowledge();
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void consumeRetry_DueRecordIsBookedAndAcked() {
+        ConsumerRecord<String, BookingRequest> record = retryRecord(System.currentTimeMillis() - 1);
+        when(bookingService.createBookingIfAbsent("req:abc", 1L, "GYM", START, START.plusHours(1))).thenReturn(Optional.empty());
+
+        retryConsumer.consumeRetry(record, ack);
+
+        verify(ack).acknowledge();
+        verifyNoInteractions(retryProducer);
+    }
+
+    @Test
+    void consumeRetry_RejectedBookingIsNotRetried() {
+        ConsumerRecord<String, BookingRequest> record = retryRecord(0);
+        when(bookingService.createBookingIfAbsent(any(), any(), any(), any(), any()))
+                .thenThrow(new BookingConflictException("already booked"));
+
+        retryConsumer.consumeRetry(record, ack);
+
+        verify(bookingService).recordRejection(argThat(command -> "req:abc".equals(command.requestKey())), eq("already booked"));
+        verify(ack).acknowledge();
+        verifyNoInteractions(retryProducer);
+    }
+
+    @Test
+    void consumeRetry_TransientFailureMovesToNextTier() {
+        ConsumerRecord<String, BookingRequest> record = retryRecord(0);
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("database unavailable");
+        when(bookingService.createBookingIfAbsent(any(), any(), any(), any(), any())).thenThrow(failure);
+
+        retryConsumer.consumeRetry(record, ack);
+
+        verify(retryProducer).retry(eq(record), eq(REQUEST), eq(failure));
+        verify(ack).acknowledge();
+    }
+
+    private static ConsumerRecord<String, BookingRequest> retryRecord(long due) {
+        ConsumerRecord<String, BookingRequest> record = new ConsumerRecord<>(BookingRetryProducer.RETRY_TOPIC_0, 0, 0L, "GYM:2025-12-01", REQUEST);
+        record.headers().add(BookingConsumer.REQUEST_ID_HEADER, "abc".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(BookingRetryProducer.ATTEMPT_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(BookingRetryProducer.DUE_HEADER, Long.toString(due).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
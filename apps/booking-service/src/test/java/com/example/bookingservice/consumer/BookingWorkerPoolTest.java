@@ -0,0 +1,57 @@
+package com.example.bookingservice.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingWorkerPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingWorkerPool workerPool = new BookingWorkerPool(meterRegistry, 4, new MockEnvironment());
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    void runByKey_KeepsOrderWithinKey() {
+        List<String> items = List.of("gym:1", "pool:1", "gym:2", "tennis:1", "pool:2", "gym:3");
+        Map<String, List<String>> lanes = new ConcurrentHashMap<>();
+
+        List<String> results = workerPool.runByKey(items, item -> item.split(":")[0], lane -> {
+            lanes.put(lane.get(0).split(":")[0], lane);
+            return lane;
+        });
+
+        assertEquals(List.of("gym:1", "gym:2", "gym:3", "pool:1", "pool:2", "tennis:1"), results);
+        assertEquals(3, lanes.size());
+        assertEquals(List.of("gym:1", "gym:2", "gym:3"), lanes.get("gym"));
+    }
+
+    @Test
+    void runByKey_RethrowsLaneFailure() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> workerPool.runByKey(List.of("a", "b"), item -> item, lane -> {
+                    if (lane.contains("b")) {
+                        throw new IllegalStateException("lane failed");
+                    }
+                    return lane;
+                }));
+
+        assertEquals("lane failed", failure.getMessage());
+    }
+
+    @Test
+    void exposesQueueAndActiveWorkerMetrics() {
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "booking.workers").gauge());
+        assertNotNull(meterRegistry.find("executor.active").tag("name", "booking.workers").gauge());
+    }
+}
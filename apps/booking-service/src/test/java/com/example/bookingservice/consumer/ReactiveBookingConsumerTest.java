@@ -0,0 +1,85 @@
+package com.example.bookingservice.consumer;
+
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.producer.BookingRetryProducer;
+import com.example.bookingservice.service.ReactiveBookingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookingConsumerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 1, 10, 0);
+    private static final BookingRequest REQUEST = new BookingRequest(1L, "GYM", START, START.plusHours(1));
+
+    @Mock
+    private KafkaReceiver<String, BookingRequest> receiver;
+
+    @Mock
+    private ReactiveBookingService bookingService;
+
+    @Mock
+    private BookingRetryProducer retryProducer;
+
+    @Mock
+    private ReceiverOffset offset;
+
+    @InjectMocks
+    private ReactiveBookingConsumer consumer;
+
+    @Test
+    void process_AcknowledgesOnceTheBatchIsBooked() {
+        ReceiverRecord<String, BookingRequest> record = record("abc");
+        when(bookingService.createBookingsIfAbsent(argThat(commands -> commands.size() == 1
+                && "req:abc".equals(commands.get(0).requestKey())))).thenReturn(Mono.just(List.of(new Booking())));
+
+        StepVerifier.create(consumer.process(List.of(record)))
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(offset).acknowledge();
+        verifyNoInteractions(retryProducer);
+    }
+
+    @Test
+    void process_TransientFailureSendsBatchToRetryThenAcknowledges() {
+        ReceiverRecord<String, BookingRequest> record = record("abc");
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("database unavailable");
+        when(bookingService.createBookingsIfAbsent(any())).thenReturn(Mono.error(failure));
+
+        StepVerifier.create(consumer.process(List.of(record)))
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(retryProducer).retry(eq(record), eq(REQUEST), eq(failure));
+        verify(offset).acknowledge();
+    }
+
+    private ReceiverRecord<String, BookingRequest> record(String requestId) {
+        ConsumerRecord<String, BookingRequest> record = new ConsumerRecord<>(BookingRetryProducer.SOURCE_TOPIC, 0, 0L, "GYM:2025-12-01", REQUEST);
+        record.headers().add(BookingConsumer.REQUEST_ID_HEADER, requestId.getBytes(StandardCharsets.UTF_8));
+        return new ReceiverRecord<>(record, offset);
+    }
+}
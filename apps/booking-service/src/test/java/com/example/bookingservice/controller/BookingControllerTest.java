@@ -1,7 +1,14 @@
 package com.example.bookingservice.controller;
 
+import com.example.bookingservice.dto.BookingBatchRequest;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingPage;
+import com.example.bookingservice.dto.BookingRecurrence;
 import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.dto.BookingSummary;
 import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.service.BookingOutcome;
 import com.example.bookingservice.service.BookingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -15,11 +22,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -94,4 +110,96 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Validation failed"));
     }
+
+    @Test
+    void listBookings_PassesFiltersAndReturnsPage() throws Exception {
+        // Arrange
+        LocalDateTime startTime = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingFilter filter = new BookingFilter(1L, "gym", startTime, startTime.plusDays(1));
+        BookingPage page = new BookingPage(
+                List.of(new BookingSummary(100L, 1L, "gym", startTime, startTime.plusHours(1), "CONFIRMED")), "next");
+        when(bookingService.listBookings(filter, null, 10)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/bookings")
+                .param("userId", "1")
+                .param("amenityId", "gym")
+                .param("from", "2025-12-01T10:00:00")
+                .param("to", "2025-12-02T10:00:00")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(100L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void listBookings_RejectsOversizedPage() throws Exception {
+        mockMvc.perform(get("/api/bookings").param("size", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createBookings_ExpandsRecurrenceAndReportsEachOccurrence() throws Exception {
+        // Arrange: Mon 1 to Fri 5 December, weekdays at 06:00
+        BookingRecurrence rule = new BookingRecurrence(1L, "gym", LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 7),
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(6, 0), LocalTime.of(7, 0));
+        when(bookingService.createBookings(anyList())).thenAnswer(invocation -> {
+            List<BookingCommand> commands = invocation.getArgument(0);
+            return commands.stream()
+                    .map(command -> command.startTime().getDayOfMonth() == 3
+                            ? BookingOutcome.rejected(command, "Amenity gym is already booked")
+                            : BookingOutcome.booked(command, booking(command.startTime().getDayOfMonth())))
+                    .toList();
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingBatchRequest(null, rule))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booked").value(4))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results.length()").value(5))
+                .andExpect(jsonPath("$.results[0].bookingId").value(1))
+                .andExpect(jsonPath("$.results[1].bookingId").value(2))
+                .andExpect(jsonPath("$.results[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[2].reason").value("Amenity gym is already booked"));
+    }
+
+    @Test
+    void createBookings_PassesExplicitListInOrder() throws Exception {
+        LocalDateTime startTime = LocalDateTime.of(2025, 12, 1, 10, 0);
+        List<BookingRequest> bookings = List.of(
+                new BookingRequest(1L, "gym", startTime, startTime.plusHours(1)),
+                new BookingRequest(1L, "pool", startTime, startTime.plusHours(1)));
+        when(bookingService.createBookings(argThat(commands -> commands.size() == 2
+                && "pool".equals(commands.get(1).amenityId()) && commands.get(1).requestKey() == null)))
+                .thenAnswer(invocation -> {
+                    List<BookingCommand> commands = invocation.getArgument(0);
+                    return commands.stream().map(command -> BookingOutcome.booked(command, booking(1))).toList();
+                });
+
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingBatchRequest(bookings, null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booked").value(2))
+                .andExpect(jsonPath("$.results[1].amenityId").value("pool"));
+    }
+
+    @Test
+    void createBookings_RequiresExactlyOneOfListAndRecurrence() throws Exception {
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
+    private static Booking booking(long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        return booking;
+    }
 }
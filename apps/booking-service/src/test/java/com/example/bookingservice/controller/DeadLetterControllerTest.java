@@ -0,0 +1,68 @@
+package com.example.bookingservice.controller;
+
+import com.example.bookingservice.service.DeadLetterReplayService;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private DeadLetterReplayService replayService;
+
+    @InjectMocks
+    private DeadLetterController deadLetterController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(deadLetterController).build();
+    }
+
+    @Test
+    void replay_ReturnsCount() throws Exception {
+        when(replayService.replay(500)).thenReturn(42);
+
+        mockMvc.perform(post("/api/bookings/dead-letters/replay").param("max", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayed").value(42));
+    }
+
+    @Test
+    void replay_RejectsInvalidMax() throws Exception {
+        mockMvc.perform(post("/api/bookings/dead-letters/replay").param("max", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(replayService);
+    }
+
+    @Test
+    void replay_ConcurrentReplayIsConflict() throws Exception {
+        when(replayService.replay(1000)).thenThrow(new IllegalStateException("A dead-letter replay is already running"));
+
+        mockMvc.perform(post("/api/bookings/dead-letters/replay"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void replay_KafkaFailureIsServiceUnavailable() throws Exception {
+        when(replayService.replay(1000)).thenThrow(new KafkaException("Dead-letter replay failed"));
+
+        mockMvc.perform(post("/api/bookings/dead-letters/replay"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
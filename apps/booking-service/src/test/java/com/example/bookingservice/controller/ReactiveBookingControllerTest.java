@@ -0,0 +1,118 @@
+package com.example.bookingservice.controller;
+
+import com.example.bookingservice.dto.BookingBatchRequest;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingRequest;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.service.BookingConflictException;
+import com.example.bookingservice.service.BookingOutcome;
+import com.example.bookingservice.service.ReactiveBookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookingControllerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 1, 10, 0);
+
+    @Mock
+    private ReactiveBookingService bookingService;
+
+    @InjectMocks
+    private ReactiveBookingController bookingController;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(bookingController).build();
+    }
+
+    @Test
+    void createBooking_Success() {
+        Booking booking = new Booking();
+        booking.setId(100L);
+        booking.setUserId(1L);
+        booking.setAmenityId("gym");
+        booking.setStartTime(START);
+        booking.setEndTime(START.plusHours(1));
+        booking.setStatus("CONFIRMED");
+        when(bookingService.createBooking(1L, "gym", START, START.plusHours(1))).thenReturn(Mono.just(booking));
+
+        webTestClient.post().uri("/api/bookings")
+                .bodyValue(new BookingRequest(1L, "gym", START, START.plusHours(1)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(100)
+                .jsonPath("$.status").isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    void createBooking_OverlapIsConflict() {
+        when(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .thenReturn(Mono.error(new BookingConflictException("Amenity gym is already booked")));
+
+        webTestClient.post().uri("/api/bookings")
+                .bodyValue(new BookingRequest(1L, "gym", START, START.plusHours(1)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Amenity gym is already booked");
+    }
+
+    @Test
+    void createBookings_ReturnsOutcomePerEntry() {
+        BookingCommand first = new BookingCommand(null, 1L, "gym", START, START.plusHours(1));
+        BookingCommand second = new BookingCommand(null, 1L, "gym", START, START.plusHours(1));
+        Booking booking = new Booking();
+        booking.setId(7L);
+        when(bookingService.createBookings(anyList())).thenReturn(Mono.just(List.of(
+                BookingOutcome.booked(first, booking), BookingOutcome.rejected(second, "already booked"))));
+
+        webTestClient.post().uri("/api/bookings/batch")
+                .bodyValue(new BookingBatchRequest(List.of(
+                        new BookingRequest(1L, "gym", START, START.plusHours(1)),
+                        new BookingRequest(1L, "gym", START, START.plusHours(1))), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.booked").isEqualTo(1)
+                .jsonPath("$.results[0].bookingId").isEqualTo(7)
+                .jsonPath("$.results[1].reason").isEqualTo("already booked");
+    }
+
+    @Test
+    void createBookings_RequiresExactlyOneSource() {
+        webTestClient.post().uri("/api/bookings/batch")
+                .bodyValue(new BookingBatchRequest(null, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void listBookings_RejectsOversizedPage() {
+        webTestClient.get().uri("/api/bookings?size=101")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("size must be between 1 and 100");
+
+        verifyNoInteractions(bookingService);
+    }
+}
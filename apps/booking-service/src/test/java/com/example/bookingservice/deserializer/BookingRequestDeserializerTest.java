@@ -1,6 +1,7 @@
 package com.example.bookingservice.deserializer;
 
 import com.example.bookingservice.dto.BookingRequest;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
@@ -28,6 +29,36 @@ class BookingRequestDeserializerTest {
         assertEquals(LocalDateTime.of(2025, 12, 1, 11, 0), result.endTime());
     }
 
+    @Test
+    void deserialize_BinaryWhenHeaderPresent() {
+        // Arrange - binary-v1 bytes as produced by catalog-service for
+        // (1, "GYM", "AMENITY", 2025-12-01T10:00, 2025-12-01T11:00)
+        byte[] data = {1, 31, 2, 3, 'G', 'Y', 'M', 7, 'A', 'M', 'E', 'N', 'I', 'T', 'Y',
+                (byte) 0x80, (byte) 0xD4, (byte) 0xD6, (byte) 0x95, (byte) 0xDB, 0x66,
+                (byte) 0x80, (byte) 0x8E, (byte) 0x8E, (byte) 0x99, (byte) 0xDB, 0x66};
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(BookingWireFormat.HEADER, BookingWireFormat.BINARY_V1.getBytes());
+
+        // Act
+        BookingRequest result = deserializer.deserialize("topic", headers, data);
+
+        // Assert
+        assertEquals(new BookingRequest(1L, "GYM",
+                LocalDateTime.of(2025, 12, 1, 10, 0), LocalDateTime.of(2025, 12, 1, 11, 0)), result);
+    }
+
+    @Test
+    void deserialize_JsonWithoutHeader() {
+        // Arrange
+        byte[] data = "{\"userId\":1,\"serviceId\":\"GYM\"}".getBytes();
+
+        // Act
+        BookingRequest result = deserializer.deserialize("topic", new RecordHeaders(), data);
+
+        // Assert
+        assertEquals("GYM", result.amenityId());
+    }
+
     @Test
     void deserialize_NullData() {
         // Act
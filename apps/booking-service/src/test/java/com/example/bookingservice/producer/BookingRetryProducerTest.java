@@ -0,0 +1,132 @@
+package com.example.bookingservice.producer;
+
+import com.example.bookingservice.config.BookingRetryProperties;
+import com.example.bookingservice.deserializer.BookingWireFormat;
+import com.example.bookingservice.dto.BookingRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRetryProducerTest {
+
+    private static final BookingRequest REQUEST = new BookingRequest(1L, "GYM",
+            LocalDateTime.of(2025, 12, 1, 10, 0), LocalDateTime.of(2025, 12, 1, 11, 0));
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private BookingRetryProducer retryProducer;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        retryProducer = new BookingRetryProducer(kafkaTemplate, objectMapper,
+                new BookingRetryProperties(List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(2))));
+    }
+
+    @Test
+    void retry_FromMainTopicGoesToFirstTier() {
+        // Arrange
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ConsumerRecord<String, BookingRequest> record = new ConsumerRecord<>("booking-requests", 2, 40L, "GYM:2025-12-01", REQUEST);
+        record.headers().add("request-id", "abc".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(BookingWireFormat.HEADER, BookingWireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8));
+        long before = System.currentTimeMillis();
+
+        // Act
+        retryProducer.retry(record, REQUEST, new IllegalStateException("database unavailable"));
+
+        // Assert
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertEquals(BookingRetryProducer.RETRY_TOPIC_0, sent.topic());
+        assertEquals("GYM:2025-12-01", sent.key());
+        assertTrue(new String(sent.value(), StandardCharsets.UTF_8).contains("\"amenityId\":\"GYM\""));
+        assertEquals("abc", header(sent, "request-id"));
+        // Re-encoded as JSON, so the binary marker must not travel along
+        assertNull(sent.headers().lastHeader(BookingWireFormat.HEADER));
+        assertEquals("1", header(sent, BookingRetryProducer.ATTEMPT_HEADER));
+        assertTrue(Long.parseLong(header(sent, BookingRetryProducer.DUE_HEADER)) >= before + 5000);
+        assertEquals("booking-requests", header(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(IllegalStateException.class.getName(), header(sent, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        assertEquals("database unavailable", header(sent, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    @Test
+    void retry_AfterLastTierGoesToDeadLetterTopic() {
+        // Arrange
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ConsumerRecord<String, BookingRequest> record = new ConsumerRecord<>(BookingRetryProducer.RETRY_TOPIC_2, 2, 7L, "GYM:2025-12-01", REQUEST);
+        record.headers().add(BookingRetryProducer.ATTEMPT_HEADER, "3".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(BookingRetryProducer.DUE_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "booking-requests".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_PARTITION, new byte[]{0, 0, 0, 2});
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_OFFSET, new byte[]{0, 0, 0, 0, 0, 0, 0, 40});
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "earlier failure".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        retryProducer.retry(record, REQUEST, new IllegalStateException("still down"));
+
+        // Assert
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertEquals(BookingRetryProducer.DLT_TOPIC, sent.topic());
+        assertEquals("4", header(sent, BookingRetryProducer.ATTEMPT_HEADER));
+        assertNull(sent.headers().lastHeader(BookingRetryProducer.DUE_HEADER));
+        // The original position survives every hop; the failure is the latest one
+        assertEquals(1, headerCount(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(1, headerCount(sent, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        assertEquals("booking-requests", header(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals("still down", header(sent, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    @Test
+    void dueAt_ReadsHeaderAndDefaultsToZero() {
+        ConsumerRecord<String, BookingRequest> record = new ConsumerRecord<>(BookingRetryProducer.RETRY_TOPIC_0, 0, 0L, "k", REQUEST);
+        assertEquals(0, BookingRetryProducer.dueAt(record));
+
+        record.headers().add(BookingRetryProducer.DUE_HEADER, "1733047200000".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1733047200000L, BookingRetryProducer.dueAt(record));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> captureSent() {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static int headerCount(ProducerRecord<String, byte[]> record, String name) {
+        int count = 0;
+        for (Header ignored : record.headers().headers(name)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.bookingservice.producer;
+
+import com.example.bookingservice.config.BookingOutboxProperties;
+import com.example.bookingservice.deserializer.BookingWireFormat;
+import com.example.bookingservice.model.OutboxEvent;
+import com.example.bookingservice.model.OutboxRelayLease;
+import com.example.bookingservice.repository.OutboxEventRepository;
+import com.example.bookingservice.repository.OutboxRelayLeaseRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxRelayLeaseRepository leaseRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, leaseRepository, kafkaTemplate, new TransactionTemplate(transactionManager),
+                new BookingOutboxProperties(2, Duration.ofMillis(200), Duration.ofHours(1), Duration.ofSeconds(30)), taskScheduler);
+    }
+
+    @Test
+    void relay_PublishesFullBatchesUntilDrainedAndMarksThemSentTogether() {
+        holdLease();
+        when(outboxEventRepository.findUnsent(any()))
+                .thenReturn(List.of(event(1L, null), event(2L, BookingWireFormat.BINARY_V1)))
+                .thenReturn(List.of(event(3L, null)));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any())).thenReturn(CompletableFuture.completedFuture(sent()));
+
+        relay.relay();
+
+        verify(outboxEventRepository, times(2)).findUnsent(any());
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any());
+        verify(outboxEventRepository).markSent(eq(List.of(3L)), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(3)).send(records.capture());
+        ProducerRecord<String, byte[]> binary = records.getAllValues().get(1);
+        assertEquals("GYM", binary.key());
+        assertEquals(BookingWireFormat.BINARY_V1,
+                new String(binary.headers().lastHeader(BookingWireFormat.HEADER).value(), StandardCharsets.UTF_8));
+        assertNull(records.getAllValues().get(0).headers().lastHeader(BookingWireFormat.HEADER));
+    }
+
+    @Test
+    void relay_LeavesFailedEventsUnsent() {
+        holdLease();
+        when(outboxEventRepository.findUnsent(any())).thenReturn(List.of(event(1L, null), event(2L, null)));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any()))
+                .thenReturn(CompletableFuture.completedFuture(sent()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker unavailable")));
+
+        relay.relay();
+
+        // Not a full batch, so the round ends and the failed event waits for the next one
+        verify(outboxEventRepository, times(1)).findUnsent(any());
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void relay_StopsAcknowledgingAtTheFirstFailedEvent() {
+        holdLease();
+        when(outboxEventRepository.findUnsent(any())).thenReturn(List.of(event(1L, null), event(2L, null), event(3L, null)));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any()))
+                .thenReturn(CompletableFuture.completedFuture(sent()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(sent()));
+
+        relay.relay();
+
+        // 3 was acknowledged, but it goes out again after 2 rather than ahead of it
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void relay_EmptyOutboxSendsNothing() {
+        holdLease();
+        when(outboxEventRepository.findUnsent(any())).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(kafkaTemplate, never()).send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any());
+        verify(outboxEventRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    void relay_SendsNothingWhileAnotherInstanceHoldsTheLease() {
+        when(leaseRepository.acquire(eq(1L), anyString(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(1L)).thenReturn(true);
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).findUnsent(any());
+        verify(kafkaTemplate, never()).send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any());
+    }
+
+    @Test
+    void relay_CreatesTheLeaseRowOnAFreshDatabase() {
+        when(leaseRepository.acquire(eq(1L), anyString(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(1L)).thenReturn(false);
+
+        relay.relay();
+
+        verify(leaseRepository).saveAndFlush(any(OutboxRelayLease.class));
+        verify(outboxEventRepository, never()).findUnsent(any());
+    }
+
+    private void holdLease() {
+        when(leaseRepository.acquire(eq(1L), anyString(), any(), any())).thenReturn(1);
+    }
+
+    private static OutboxEvent event(Long id, String format) {
+        OutboxEvent event = new OutboxEvent("booking-events", "GYM", new byte[]{1}, format);
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+
+    private static SendResult<String, byte[]> sent() {
+        return new SendResult<>(null, null);
+    }
+}
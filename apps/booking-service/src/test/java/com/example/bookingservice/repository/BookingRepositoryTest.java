@@ -0,0 +1,79 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingSummary;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.BookingSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 1, 0, 0);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int hour = 6; hour < 12; hour++) {
+            bookings.add(booking(1L, "GYM", DAY.withHour(hour)));
+            bookings.add(booking(2L, "POOL", DAY.withHour(hour)));
+        }
+        bookingRepository.saveAllAndFlush(bookings);
+    }
+
+    @Test
+    void findSummaries_WalksPagesInStartTimeThenIdOrder() {
+        BookingFilter all = new BookingFilter(null, null, null, null);
+
+        List<BookingSummary> first = bookingRepository.findSummaries(all, null, null, 5);
+        BookingSummary last = first.get(4);
+        List<BookingSummary> second = bookingRepository.findSummaries(all, last.startTime(), last.id(), 5);
+
+        assertEquals(5, first.size());
+        assertEquals(5, second.size());
+        // Two bookings share each start time; the id breaks the tie without skipping or repeating rows
+        assertEquals(DAY.withHour(8), first.get(4).startTime());
+        assertEquals(DAY.withHour(8), second.get(0).startTime());
+        assertTrue(second.get(0).id() > first.get(4).id());
+        List<Long> ids = new ArrayList<>();
+        first.forEach(row -> ids.add(row.id()));
+        second.forEach(row -> ids.add(row.id()));
+        assertEquals(10, ids.stream().distinct().count());
+    }
+
+    @Test
+    void findSummaries_AppliesOnlyTheGivenFilters() {
+        List<BookingSummary> gym = bookingRepository.findSummaries(
+                new BookingFilter(null, "GYM", DAY.withHour(8), DAY.withHour(10)), null, null, 10);
+        List<BookingSummary> user = bookingRepository.findSummaries(
+                new BookingFilter(2L, null, null, null), null, null, 10);
+
+        assertEquals(List.of(DAY.withHour(8), DAY.withHour(9)), gym.stream().map(BookingSummary::startTime).toList());
+        assertTrue(gym.stream().allMatch(row -> row.amenityId().equals("GYM")));
+        assertEquals(6, user.size());
+        assertTrue(user.stream().allMatch(row -> row.userId() == 2L));
+    }
+
+    private static Booking booking(Long userId, String amenityId, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setUserId(userId);
+        booking.setAmenityId(amenityId);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(1));
+        booking.setStatus("CONFIRMED");
+        booking.setSlots(BookingSlot.covering(amenityId, start, start.plusHours(1)));
+        return booking;
+    }
+}
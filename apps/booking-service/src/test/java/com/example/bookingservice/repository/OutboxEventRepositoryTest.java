@@ -0,0 +1,46 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void findUnsent_ReturnsOldestUnsentFirstAndSkipsSentRows() {
+        List<OutboxEvent> saved = outboxEventRepository.saveAllAndFlush(List.of(event("GYM"), event("POOL"), event("GYM")));
+
+        outboxEventRepository.markSent(List.of(saved.get(0).getId()), LocalDateTime.now());
+        List<OutboxEvent> unsent = outboxEventRepository.findUnsent(PageRequest.of(0, 10));
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(2).getId()), unsent.stream().map(OutboxEvent::getId).toList());
+        assertEquals(1, outboxEventRepository.findUnsent(PageRequest.of(0, 1)).size());
+    }
+
+    @Test
+    void deleteSentBefore_KeepsUnsentAndRecentRows() {
+        List<OutboxEvent> saved = outboxEventRepository.saveAllAndFlush(List.of(event("GYM"), event("POOL"), event("GYM")));
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.markSent(List.of(saved.get(0).getId()), now.minusHours(2));
+        outboxEventRepository.markSent(List.of(saved.get(1).getId()), now);
+
+        assertEquals(1, outboxEventRepository.deleteSentBefore(now.minusHours(1)));
+        assertEquals(2, outboxEventRepository.count());
+    }
+
+    private static OutboxEvent event(String amenityId) {
+        return new OutboxEvent("booking-events", amenityId, "{}".getBytes(StandardCharsets.UTF_8), null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.model.OutboxRelayLease;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class OutboxRelayLeaseRepositoryTest {
+
+    @Autowired
+    private OutboxRelayLeaseRepository leaseRepository;
+
+    @Test
+    void acquire_OnlyTheHolderRenewsUntilTheLeaseExpires() {
+        leaseRepository.saveAndFlush(new OutboxRelayLease(1L));
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, leaseRepository.acquire(1L, "relay-a", now, now.plusSeconds(30)));
+        assertEquals(0, leaseRepository.acquire(1L, "relay-b", now.plusSeconds(10), now.plusSeconds(40)));
+        assertEquals(1, leaseRepository.acquire(1L, "relay-a", now.plusSeconds(10), now.plusSeconds(40)));
+        // relay-a stopped renewing
+        assertEquals(1, leaseRepository.acquire(1L, "relay-b", now.plusSeconds(41), now.plusSeconds(71)));
+        assertEquals(0, leaseRepository.acquire(1L, "relay-a", now.plusSeconds(42), now.plusSeconds(72)));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.bookingservice.repository;
+
+import com.example.bookingservice.config.DataSourceConfig;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingSummary;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.BookingSlot;
+import com.example.bookingservice.model.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// JPA creates the schema and R2DBC writes to the same in-memory database, as in the reactive mode
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-booking-test;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-booking-test;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(R2dbcAutoConfiguration.class)
+@Import(DataSourceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReactiveBookingRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 1, 0, 0);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private ReactiveBookingRepository reactiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        reactiveRepository = new ReactiveBookingRepository(databaseClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void saveAll_WritesBookingsAndSlotsThatJpaReadsBack() {
+        List<Booking> saved = reactiveRepository.saveAll(List.of(
+                booking(1L, "GYM", DAY.withHour(10), "req:a"), booking(2L, "POOL", DAY.withHour(10), null))).block();
+
+        Booking gym = bookingRepository.findById(saved.get(0).getId()).orElseThrow();
+        assertEquals("req:a", gym.getRequestKey());
+        assertEquals(4L, databaseClient.sql("select count(*) from booking_slot where booking_id = :id")
+                .bind("id", gym.getId()).map(row -> row.get(0, Long.class)).one().block());
+        assertNotEquals(saved.get(0).getId(), saved.get(1).getId());
+        assertTrue(bookingRepository.existsByRequestKey("req:a"));
+    }
+
+    @Test
+    void saveAll_IdsDoNotCollideWithJpaInserts() {
+        Booking viaJpa = bookingRepository.saveAndFlush(booking(1L, "GYM", DAY.withHour(6), null));
+        List<Booking> viaR2dbc = new ArrayList<>();
+        for (int hour = 7; hour < 10; hour++) {
+            viaR2dbc.add(booking(1L, "GYM", DAY.withHour(hour), null));
+        }
+        reactiveRepository.saveAll(viaR2dbc).block();
+        Booking viaJpaAgain = bookingRepository.saveAndFlush(booking(1L, "GYM", DAY.withHour(11), null));
+
+        assertEquals(5, bookingRepository.count());
+        assertEquals(5, bookingRepository.findAll().stream().map(Booking::getId).distinct().count());
+        assertNotEquals(viaJpa.getId(), viaJpaAgain.getId());
+    }
+
+    @Test
+    void saveAll_OverlappingSlotIsADataIntegrityViolation() {
+        reactiveRepository.saveAll(List.of(booking(1L, "GYM", DAY.withHour(10), null))).block();
+
+        StepVerifier.create(reactiveRepository.saveAll(List.of(booking(2L, "GYM", DAY.withHour(10).plusMinutes(30), null))))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void findExistingRequestKeys_ReturnsOnlyStoredKeys() {
+        reactiveRepository.saveAll(List.of(booking(1L, "GYM", DAY.withHour(10), "req:a"))).block();
+
+        StepVerifier.create(reactiveRepository.findExistingRequestKeys(List.of("req:a", "req:b")))
+                .expectNext(Set.of("req:a"))
+                .verifyComplete();
+        StepVerifier.create(reactiveRepository.existsByRequestKey("req:b"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void findSummaries_MatchesTheJpaListing() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int hour = 6; hour < 12; hour++) {
+            bookings.add(booking(1L, "GYM", DAY.withHour(hour), null));
+            bookings.add(booking(2L, "POOL", DAY.withHour(hour), null));
+        }
+        bookingRepository.saveAllAndFlush(bookings);
+        BookingFilter gym = new BookingFilter(null, "GYM", DAY.withHour(7), null);
+
+        List<BookingSummary> first = reactiveRepository.findSummaries(gym, null, null, 3).collectList().block();
+        BookingSummary last = first.get(2);
+        List<BookingSummary> second = reactiveRepository.findSummaries(gym, last.startTime(), last.id(), 3).collectList().block();
+
+        assertEquals(bookingRepository.findSummaries(gym, null, null, 3), first);
+        assertEquals(bookingRepository.findSummaries(gym, last.startTime(), last.id(), 3), second);
+        assertEquals(List.of(DAY.withHour(10), DAY.withHour(11)), second.stream().map(BookingSummary::startTime).toList());
+    }
+
+    @Test
+    void saveOutbox_RowsAreVisibleToTheRelay() {
+        reactiveRepository.saveOutbox(List.of(
+                new OutboxEvent("booking-events", "GYM", "{}".getBytes(StandardCharsets.UTF_8), null),
+                new OutboxEvent("booking-events", "POOL", new byte[]{1, 2}, "binary-v1"))).block();
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(event -> event.getSentAt() == null && event.getCreatedAt() != null));
+        assertArrayEquals(new byte[]{1, 2}, events.stream().filter(event -> "POOL".equals(event.getMessageKey()))
+                .findFirst().orElseThrow().getPayload());
+    }
+
+    private static Booking booking(Long userId, String amenityId, LocalDateTime start, String requestKey) {
+        Booking booking = new Booking();
+        booking.setUserId(userId);
+        booking.setAmenityId(amenityId);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(1));
+        booking.setStatus("CONFIRMED");
+        booking.setRequestKey(requestKey);
+        booking.setSlots(BookingSlot.covering(amenityId, start, start.plusHours(1)));
+        return booking;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AmenityScheduleIndexTest {
+
+    private static final LocalDateTime TOMORROW_TEN = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Test
+    void tryReserve_RejectsOverlapsAndAllowsAdjacentIntervals() {
+        AmenityScheduleIndex index = new AmenityScheduleIndex(bookingRepository);
+
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN, TOMORROW_TEN.plusHours(1)));
+
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN, TOMORROW_TEN.plusHours(1)));
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN.minusMinutes(30), TOMORROW_TEN.plusMinutes(15)));
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN.plusMinutes(45), TOMORROW_TEN.plusHours(2)));
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN.minusHours(1), TOMORROW_TEN.plusHours(2)));
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN.minusHours(1), TOMORROW_TEN));
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN.plusHours(1), TOMORROW_TEN.plusHours(2)));
+        assertTrue(index.tryReserve("pool", TOMORROW_TEN, TOMORROW_TEN.plusHours(1)));
+    }
+
+    @Test
+    void tryReserve_RoundsOutwardsToWholeCells() {
+        AmenityScheduleIndex index = new AmenityScheduleIndex(bookingRepository);
+
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN.plusMinutes(5), TOMORROW_TEN.plusMinutes(50)));
+
+        // 10:50 occupies the 10:45 cell
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN.plusMinutes(55), TOMORROW_TEN.plusHours(1)));
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN.plusHours(1), TOMORROW_TEN.plusHours(2)));
+    }
+
+    @Test
+    void release_FreesTheInterval() {
+        AmenityScheduleIndex index = new AmenityScheduleIndex(bookingRepository);
+        index.tryReserve("gym", TOMORROW_TEN, TOMORROW_TEN.plusHours(1));
+
+        index.release("gym", TOMORROW_TEN, TOMORROW_TEN.plusHours(1));
+
+        assertTrue(index.tryReserve("gym", TOMORROW_TEN.plusMinutes(30), TOMORROW_TEN.plusHours(1)));
+    }
+
+    @Test
+    void load_ReadsUpcomingBookings() {
+        Booking booking = new Booking();
+        booking.setAmenityId("gym");
+        booking.setStartTime(TOMORROW_TEN);
+        booking.setEndTime(TOMORROW_TEN.plusHours(1));
+        when(bookingRepository.findByEndTimeAfter(any())).thenReturn(List.of(booking));
+        AmenityScheduleIndex index = new AmenityScheduleIndex(bookingRepository);
+
+        index.load();
+
+        assertFalse(index.tryReserve("gym", TOMORROW_TEN.plusMinutes(30), TOMORROW_TEN.plusMinutes(45)));
+    }
+}
@@ -1,18 +1,43 @@
 package com.example.bookingservice.service;
 
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.dto.BookingFilter;
+import com.example.bookingservice.dto.BookingPage;
+import com.example.bookingservice.dto.BookingSummary;
 import com.example.bookingservice.model.Booking;
 import com.example.bookingservice.repository.BookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +46,36 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
-    @InjectMocks
+    @Mock
+    private BookingOutbox outbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<BookingEvent>> events;
+
+    @Spy
+    private ProcessedRequestCache processedRequests = new ProcessedRequestCache(100);
+
+    private AmenityScheduleIndex scheduleIndex;
+
     private BookingService bookingService;
 
+    @BeforeEach
+    void setUp() {
+        scheduleIndex = new AmenityScheduleIndex(bookingRepository);
+        BookingDirectoryProperties.Cache cache = new BookingDirectoryProperties.Cache(
+                100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        BookingDirectoryProperties directories = new BookingDirectoryProperties(cache, cache);
+        StaticDirectoryLookup lookup = new StaticDirectoryLookup();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bookingService = new BookingService(bookingRepository, outbox, processedRequests, scheduleIndex,
+                new BookingFactory(new UserDirectory(lookup, directories, meterRegistry),
+                        new AmenityRegistry(lookup, directories, meterRegistry), Duration.ofHours(24)),
+                new TransactionTemplate(transactionManager));
+    }
+
     @Test
     void createBooking_Success() {
         // Arrange
@@ -50,5 +102,290 @@ class BookingServiceTest {
         assertEquals(100L, result.getId());
         assertEquals("CONFIRMED", result.getStatus());
         verify(bookingRepository).save(any(Booking.class));
+        verify(outbox).append(List.of(BookingOutbox.confirmed(savedBooking)));
+    }
+
+    @Test
+    void createBookingIfAbsent_CreatesAndRemembersKey() {
+        // Arrange
+        LocalDateTime startTime = LocalDateTime.now();
+        when(bookingRepository.existsByRequestKey("req:1")).thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Optional<Booking> first = bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1));
+        Optional<Booking> replay = bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1));
+
+        // Assert
+        assertEquals("req:1", first.orElseThrow().getRequestKey());
+        assertTrue(replay.isEmpty());
+        // The replay is answered from memory
+        verify(bookingRepository).existsByRequestKey("req:1");
+        verify(bookingRepository).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookingIfAbsent_SkipsKeyAlreadyPersisted() {
+        // Arrange
+        LocalDateTime startTime = LocalDateTime.now();
+        when(bookingRepository.existsByRequestKey("req:1")).thenReturn(true);
+
+        // Act
+        Optional<Booking> result = bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void createBookingIfAbsent_ConcurrentDuplicateIsSkipped() {
+        // Arrange
+        LocalDateTime startTime = LocalDateTime.now();
+        // Not there on the first check, there once the insert has lost the race
+        when(bookingRepository.existsByRequestKey("req:1")).thenReturn(false, true);
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // Act
+        Optional<Booking> result = bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertTrue(processedRequests.contains("req:1"));
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBookingsIfAbsent_SavesNewKeysInOneBatch() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now();
+        List<BookingCommand> commands = List.of(
+                new BookingCommand("req:1", 1L, "gym", start, start.plusHours(1)),
+                new BookingCommand("req:1", 1L, "gym", start, start.plusHours(1)),
+                new BookingCommand("req:2", 2L, "pool", start, start.plusHours(1)),
+                new BookingCommand("req:3", 3L, "tennis", start, start.plusHours(1)),
+                new BookingCommand(null, 4L, "gym", start.plusHours(2), start.plusHours(3)));
+        when(bookingRepository.findExistingRequestKeys(Set.of("req:1", "req:2", "req:3"))).thenReturn(Set.of("req:2"));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Booking> created = bookingService.createBookingsIfAbsent(commands);
+
+        // Assert
+        assertEquals(List.of("req:1", "req:3"), created.stream().map(Booking::getRequestKey).limit(2).toList());
+        assertEquals(3, created.size());
+        verify(bookingRepository).saveAll(anyList());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(outbox).append(events.capture());
+        assertEquals(3, events.getValue().size());
+        assertTrue(events.getValue().stream().allMatch(event -> BookingEvent.BOOKING_CONFIRMED.equals(event.eventType())));
+        assertTrue(processedRequests.contains("req:2"));
+        assertTrue(processedRequests.contains("req:3"));
+    }
+
+    @Test
+    void createBooking_RejectsOverlappingBooking() {
+        // Arrange
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        bookingService.createBooking(1L, "gym", startTime, startTime.plusHours(1));
+
+        // Act & Assert
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(2L, "gym", startTime.plusMinutes(30), startTime.plusHours(2)));
+        verify(bookingRepository).save(any(Booking.class));
+        // Other amenities and back-to-back bookings are unaffected
+        bookingService.createBooking(2L, "pool", startTime, startTime.plusHours(1));
+        bookingService.createBooking(2L, "gym", startTime.plusHours(1), startTime.plusHours(2));
+    }
+
+    @Test
+    void createBooking_SlotConstraintViolationIsConflict() {
+        // Arrange: another instance booked the slot, so only the database knows about it
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        Booking existing = new Booking();
+        existing.setAmenityId("gym");
+        existing.setStartTime(startTime);
+        existing.setEndTime(startTime.plusHours(1));
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException("uk_booking_slot_amenity_start"));
+        when(bookingRepository.findByAmenityIdAndEndTimeAfter(any(), any())).thenReturn(List.of(existing));
+
+        // Act & Assert
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(1L, "gym", startTime, startTime.plusHours(1)));
+        // The index now knows about the other booking and rejects without touching the database
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(1L, "gym", startTime, startTime.plusHours(1)));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void createBooking_FailedTransactionReleasesTheInterval() {
+        // Arrange: the first attempt loses its connection, the retry goes through
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new QueryTimeoutException("lock timeout"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class,
+                () -> bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1)));
+        Optional<Booking> retried = bookingService.createBookingIfAbsent("req:1", 1L, "gym", startTime, startTime.plusHours(1));
+        assertEquals("req:1", retried.orElseThrow().getRequestKey());
+    }
+
+    @Test
+    void createBookingsIfAbsent_FailedTransactionReleasesTheIntervals() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        List<BookingCommand> commands = List.of(
+                new BookingCommand("req:1", 1L, "gym", start, start.plusHours(1)),
+                new BookingCommand("req:2", 2L, "pool", start, start.plusHours(1)));
+        when(bookingRepository.findExistingRequestKeys(any())).thenReturn(Set.of());
+        when(bookingRepository.saveAll(anyList()))
+                .thenThrow(new QueryTimeoutException("lock timeout"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert: the redelivered batch is not rejected by its own earlier attempt
+        assertThrows(QueryTimeoutException.class, () -> bookingService.createBookingsIfAbsent(commands));
+        assertEquals(2, bookingService.createBookingsIfAbsent(commands).size());
+        verify(outbox).append(events.capture());
+        assertTrue(events.getValue().stream().allMatch(event -> BookingEvent.BOOKING_CONFIRMED.equals(event.eventType())));
+    }
+
+    @Test
+    void createBooking_RejectsEndBeforeStart() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+
+        assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(1L, "gym", startTime, startTime.minusHours(1)));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_RejectsBookingLongerThanTheMaximum() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+
+        BookingRejectedException rejected = assertThrows(BookingRejectedException.class,
+                () -> bookingService.createBooking(1L, "gym", startTime, startTime.plusDays(365)));
+        assertEquals("Booking may last at most 24 hours", rejected.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        // Exactly the maximum is fine
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertEquals(96, bookingService.createBooking(1L, "gym", startTime, startTime.plusHours(24)).getSlots().size());
+    }
+
+    @Test
+    void createBooking_RejectsUnknownAmenity() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+
+        assertThrows(BookingRejectedException.class,
+                () -> bookingService.createBooking(1L, " ", startTime, startTime.plusHours(1)));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookingsIfAbsent_SkipsOverlapsWithinBatch() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        List<BookingCommand> commands = List.of(
+                new BookingCommand("req:1", 1L, "gym", start, start.plusHours(1)),
+                new BookingCommand("req:2", 2L, "gym", start.plusMinutes(15), start.plusMinutes(45)),
+                new BookingCommand("req:3", 3L, "gym", start.plusHours(1), start.plusHours(2)));
+        when(bookingRepository.findExistingRequestKeys(any())).thenReturn(Set.of());
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Booking> created = bookingService.createBookingsIfAbsent(commands);
+
+        // Assert
+        assertEquals(List.of("req:1", "req:3"), created.stream().map(Booking::getRequestKey).toList());
+        assertEquals(4, created.get(0).getSlots().size());
+        // The overlap is recorded as rejected in the same transaction as the two bookings
+        verify(outbox).append(events.capture());
+        assertEquals(List.of(BookingEvent.BOOKING_REJECTED, BookingEvent.BOOKING_CONFIRMED, BookingEvent.BOOKING_CONFIRMED),
+                events.getValue().stream().map(BookingEvent::eventType).toList());
+        assertEquals(2L, events.getValue().get(0).userId());
+    }
+
+    @Test
+    void createBookingsIfAbsent_RecordsInvalidRequestsAsRejected() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+        List<BookingCommand> commands = List.of(
+                new BookingCommand("req:1", 1L, "gym", start, start.minusHours(1)));
+        when(bookingRepository.findExistingRequestKeys(any())).thenReturn(Set.of());
+
+        // Act
+        List<Booking> created = bookingService.createBookingsIfAbsent(commands);
+
+        // Assert
+        assertTrue(created.isEmpty());
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(outbox).append(events.capture());
+        BookingEvent rejected = events.getValue().get(0);
+        assertEquals(BookingEvent.BOOKING_REJECTED, rejected.eventType());
+        assertEquals("Booking end time must be after its start time", rejected.reason());
+    }
+
+    @Test
+    void createBookings_ReturnsOutcomePerEntryFromOneBatchedInsert() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(6).truncatedTo(ChronoUnit.HOURS);
+        List<BookingCommand> commands = List.of(
+                new BookingCommand(null, 1L, "gym", start, start.plusHours(1)),
+                new BookingCommand(null, 1L, "gym", start.plusMinutes(30), start.plusHours(2)),
+                new BookingCommand(null, 1L, "gym", start.plusDays(1), start.plusDays(1).minusHours(1)),
+                new BookingCommand(null, 1L, "gym", start.plusDays(2), start.plusDays(2).plusHours(1)));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<BookingOutcome> outcomes = bookingService.createBookings(commands);
+
+        // Assert
+        assertEquals(commands, outcomes.stream().map(BookingOutcome::command).toList());
+        assertNotNull(outcomes.get(0).booking());
+        assertTrue(outcomes.get(1).rejection().contains("already booked"));
+        assertEquals("Booking end time must be after its start time", outcomes.get(2).rejection());
+        assertNotNull(outcomes.get(3).booking());
+        verify(bookingRepository).saveAll(anyList());
+        verify(bookingRepository, never()).findExistingRequestKeys(any());
+        // The caller gets the rejections in the response, so only the confirmations become events
+        verify(outbox).append(events.capture());
+        assertEquals(2, events.getValue().size());
+        assertTrue(events.getValue().stream().allMatch(event -> BookingEvent.BOOKING_CONFIRMED.equals(event.eventType())));
+    }
+
+    @Test
+    void listBookings_ReturnsCursorOnlyWhenAnotherPageFollows() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingFilter filter = new BookingFilter(1L, null, null, null);
+        List<BookingSummary> rows = List.of(
+                new BookingSummary(1L, 1L, "gym", start, start.plusHours(1), "CONFIRMED"),
+                new BookingSummary(2L, 1L, "pool", start, start.plusHours(1), "CONFIRMED"),
+                new BookingSummary(3L, 1L, "gym", start.plusHours(2), start.plusHours(3), "CONFIRMED"));
+        when(bookingRepository.findSummaries(filter, null, null, 3)).thenReturn(rows);
+        when(bookingRepository.findSummaries(filter, start, 2L, 3)).thenReturn(rows.subList(2, 3));
+
+        // Act
+        BookingPage first = bookingService.listBookings(filter, null, 2);
+        BookingPage second = bookingService.listBookings(filter, first.nextCursor(), 2);
+
+        // Assert
+        assertEquals(rows.subList(0, 2), first.items());
+        assertNotNull(first.nextCursor());
+        assertEquals(rows.subList(2, 3), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void listBookings_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.listBookings(new BookingFilter(null, null, null, null), "not-a-cursor", 20));
+        verify(bookingRepository, never()).findSummaries(any(), any(), any(), anyInt());
     }
 }
@@ -0,0 +1,83 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryCacheTest {
+
+    private static final BookingDirectoryProperties.Cache PROPERTIES = new BookingDirectoryProperties.Cache(
+            100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Map<String, String> source = new ConcurrentHashMap<>();
+
+    // Refreshes run on the calling thread so the test can observe them straight away
+    private final DirectoryCache<String, String> cache = new DirectoryCache<>("test", PROPERTIES, id -> {
+        loads.incrementAndGet();
+        return Optional.ofNullable(source.get(id));
+    }, new SimpleMeterRegistry(), now::get, Runnable::run);
+
+    @Test
+    void get_LoadsOnceAndServesHitsFromMemory() {
+        source.put("gym", "Gym");
+
+        assertEquals(Optional.of("Gym"), cache.get("gym"));
+        assertEquals(Optional.of("Gym"), cache.get("gym"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_RemembersUnknownIdsForTheNegativeTtl() {
+        assertTrue(cache.get("spa").isEmpty());
+        assertTrue(cache.get("spa").isEmpty());
+        assertEquals(1, loads.get());
+
+        source.put("spa", "Spa");
+        advance(Duration.ofSeconds(31));
+
+        assertEquals(Optional.of("Spa"), cache.get("spa"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_RefreshesAheadOfExpiry() {
+        source.put("gym", "Gym");
+        cache.get("gym");
+        source.put("gym", "Gym (closed)");
+
+        advance(Duration.ofMinutes(2));
+
+        // The read past refreshAfter triggers the reload; the next one sees its result
+        cache.get("gym");
+        assertEquals(Optional.of("Gym (closed)"), cache.get("gym"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ForcesReload() {
+        source.put("gym", "Gym");
+        cache.get("gym");
+        source.put("gym", "Gym (closed)");
+
+        cache.invalidate("gym");
+
+        assertEquals(Optional.of("Gym (closed)"), cache.get("gym"));
+        assertEquals(2, loads.get());
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
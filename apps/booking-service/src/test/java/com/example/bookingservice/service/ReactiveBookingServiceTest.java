@@ -0,0 +1,240 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.config.BookingDirectoryProperties;
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingEvent;
+import com.example.bookingservice.model.Booking;
+import com.example.bookingservice.model.User;
+import com.example.bookingservice.repository.BookingRepository;
+import com.example.bookingservice.repository.ReactiveBookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookingServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(10).truncatedTo(ChronoUnit.HOURS);
+
+    @Mock
+    private ReactiveBookingRepository reactiveRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingOutbox outbox;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Captor
+    private ArgumentCaptor<List<BookingEvent>> events;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private ReactiveBookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        BookingDirectoryProperties.Cache cache = new BookingDirectoryProperties.Cache(
+                100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        BookingDirectoryProperties directories = new BookingDirectoryProperties(cache, cache);
+        StaticDirectoryLookup lookup = new StaticDirectoryLookup();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bookingService = new ReactiveBookingService(reactiveRepository, outbox, new ProcessedRequestCache(100),
+                new AmenityScheduleIndex(bookingRepository),
+                new BookingFactory(new UserDirectory(lookup, directories, meterRegistry),
+                        new AmenityRegistry(lookup, directories, meterRegistry), Duration.ofHours(24)),
+                transactionalOperator);
+    }
+
+    @Test
+    void createBooking_SavesBookingAndConfirmedEventTogether() {
+        stubWrites();
+
+        StepVerifier.create(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .assertNext(booking -> {
+                    assertEquals(1L, booking.getId());
+                    assertEquals(4, booking.getSlots().size());
+                })
+                .verifyComplete();
+
+        verify(outbox).encode(events.capture());
+        assertEquals(List.of(BookingEvent.BOOKING_CONFIRMED), events.getValue().stream().map(BookingEvent::eventType).toList());
+        verify(transactionalOperator).transactional(any(Mono.class));
+    }
+
+    @Test
+    void createBooking_ResolvesDirectoriesOffTheCallingThread() {
+        stubWrites();
+        List<String> lookupThreads = new CopyOnWriteArrayList<>();
+        StaticDirectoryLookup lookup = new StaticDirectoryLookup() {
+            @Override
+            public Optional<User> findUser(Long id) {
+                lookupThreads.add(Thread.currentThread().getName());
+                return super.findUser(id);
+            }
+        };
+        BookingDirectoryProperties.Cache cache = new BookingDirectoryProperties.Cache(
+                100, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        BookingDirectoryProperties directories = new BookingDirectoryProperties(cache, cache);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReactiveBookingService service = new ReactiveBookingService(reactiveRepository, outbox, new ProcessedRequestCache(100),
+                new AmenityScheduleIndex(bookingRepository),
+                new BookingFactory(new UserDirectory(lookup, directories, meterRegistry),
+                        new AmenityRegistry(lookup, directories, meterRegistry), Duration.ofHours(24)),
+                transactionalOperator);
+
+        StepVerifier.create(service.createBooking(1L, "gym", START, START.plusHours(1)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // A cache miss may block on the store, so it must not run on an event loop
+        assertEquals(1, lookupThreads.size());
+        assertTrue(lookupThreads.get(0).startsWith("boundedElastic"), lookupThreads.get(0));
+    }
+
+    @Test
+    void createBooking_RejectsOverlapWithoutTouchingTheDatabase() {
+        stubWrites();
+        bookingService.createBooking(1L, "gym", START, START.plusHours(1)).block();
+
+        StepVerifier.create(bookingService.createBooking(2L, "gym", START.plusMinutes(30), START.plusHours(2)))
+                .expectError(BookingConflictException.class)
+                .verify();
+        verify(reactiveRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createBooking_SlotConstraintViolationIsConflictAndReloadsTheAmenity() {
+        // Another instance booked the slot, so only the database knows about it
+        Booking existing = new Booking();
+        existing.setAmenityId("gym");
+        existing.setStartTime(START);
+        existing.setEndTime(START.plusHours(1));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reactiveRepository.saveAll(anyList())).thenReturn(Mono.error(new DataIntegrityViolationException("uk_booking_slot_amenity_start")));
+        when(bookingRepository.findByAmenityIdAndEndTimeAfter(any(), any())).thenReturn(List.of(existing));
+
+        StepVerifier.create(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .expectError(BookingConflictException.class)
+                .verify();
+        StepVerifier.create(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .expectError(BookingConflictException.class)
+                .verify();
+        verify(reactiveRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createBooking_FailedWriteReleasesTheInterval() {
+        // The first attempt loses its connection, the retry goes through
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reactiveRepository.saveAll(anyList()))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("connection lost")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveRepository.saveOutbox(anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify();
+        StepVerifier.create(bookingService.createBooking(1L, "gym", START, START.plusHours(1)))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void createBookingsIfAbsent_FailedWriteReleasesTheIntervals() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reactiveRepository.saveAll(anyList())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveRepository.saveOutbox(anyList()))
+                .thenReturn(Mono.error(new QueryTimeoutException("outbox insert timed out")))
+                .thenReturn(Mono.empty());
+        when(reactiveRepository.findExistingRequestKeys(any())).thenReturn(Mono.just(Set.of()));
+        List<BookingCommand> commands = List.of(new BookingCommand("req:1", 1L, "gym", START, START.plusHours(1)));
+
+        StepVerifier.create(bookingService.createBookingsIfAbsent(commands))
+                .expectError(QueryTimeoutException.class)
+                .verify();
+        // The redelivered batch is not rejected by its own earlier attempt
+        StepVerifier.create(bookingService.createBookingsIfAbsent(commands))
+                .assertNext(created -> assertEquals(1, created.size()))
+                .verifyComplete();
+    }
+
+    @Test
+    void createBookingsIfAbsent_SkipsKnownKeysAndOverlapsWithinBatch() {
+        stubWrites();
+        List<BookingCommand> commands = List.of(
+                new BookingCommand("req:1", 1L, "gym", START, START.plusHours(1)),
+                new BookingCommand("req:2", 2L, "gym", START.plusMinutes(15), START.plusMinutes(45)),
+                new BookingCommand("req:3", 3L, "gym", START.plusHours(1), START.plusHours(2)),
+                new BookingCommand("req:4", 4L, "pool", START, START.plusHours(1)));
+        when(reactiveRepository.findExistingRequestKeys(Set.of("req:1", "req:2", "req:3", "req:4")))
+                .thenReturn(Mono.just(Set.of("req:4")));
+
+        StepVerifier.create(bookingService.createBookingsIfAbsent(commands))
+                .assertNext(created -> assertEquals(List.of("req:1", "req:3"), created.stream().map(Booking::getRequestKey).toList()))
+                .verifyComplete();
+
+        verify(outbox).encode(events.capture());
+        assertEquals(List.of(BookingEvent.BOOKING_REJECTED, BookingEvent.BOOKING_CONFIRMED, BookingEvent.BOOKING_CONFIRMED),
+                events.getValue().stream().map(BookingEvent::eventType).toList());
+    }
+
+    @Test
+    void createBookings_ReturnsOutcomePerEntry() {
+        stubWrites();
+        List<BookingCommand> commands = List.of(
+                new BookingCommand(null, 1L, "gym", START, START.plusHours(1)),
+                new BookingCommand(null, 1L, "gym", START.plusMinutes(30), START.plusHours(2)),
+                new BookingCommand(null, 1L, "gym", START.plusDays(1), START.plusDays(1).minusHours(1)));
+
+        List<BookingOutcome> outcomes = bookingService.createBookings(commands).block();
+
+        assertEquals(commands, outcomes.stream().map(BookingOutcome::command).toList());
+        assertNotNull(outcomes.get(0).booking());
+        assertTrue(outcomes.get(1).rejection().contains("already booked"));
+        assertEquals("Booking end time must be after its start time", outcomes.get(2).rejection());
+        verify(outbox).encode(events.capture());
+        assertEquals(1, events.getValue().size());
+    }
+
+    private void stubWrites() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reactiveRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> booking.setId(ids.incrementAndGet()));
+            return Mono.just(bookings);
+        });
+        when(reactiveRepository.saveOutbox(anyList())).thenReturn(Mono.empty());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bookingservice.service;
+
+import com.example.bookingservice.dto.BookingCommand;
+import com.example.bookingservice.dto.BookingRecurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceExpanderTest {
+
+    private static final LocalTime SIX = LocalTime.of(6, 0);
+    private static final LocalTime SEVEN = LocalTime.of(7, 0);
+
+    @Test
+    void expand_WeekdaysForAMonth() {
+        // December 2025 has 23 weekdays
+        BookingRecurrence rule = new BookingRecurrence(1L, "GYM", LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 31),
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), SIX, SEVEN);
+
+        List<BookingCommand> commands = RecurrenceExpander.expand(rule, 100);
+
+        assertEquals(23, commands.size());
+        assertEquals(LocalDate.of(2025, 12, 1).atTime(SIX), commands.get(0).startTime());
+        assertEquals(LocalDate.of(2025, 12, 1).atTime(SEVEN), commands.get(0).endTime());
+        assertEquals(LocalDate.of(2025, 12, 8).atTime(SIX), commands.get(5).startTime());
+        assertTrue(commands.stream().allMatch(command -> command.userId() == 1L && command.requestKey() == null));
+    }
+
+    @Test
+    void expand_EveryDayWhenNoDaysGiven() {
+        BookingRecurrence rule = new BookingRecurrence(1L, "POOL", LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 7),
+                null, SIX, SEVEN);
+
+        assertEquals(7, RecurrenceExpander.expand(rule, 100).size());
+    }
+
+    @Test
+    void expand_RejectsTooManyOccurrencesAndInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceExpander.expand(new BookingRecurrence(
+                1L, "GYM", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), null, SIX, SEVEN), 100));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceExpander.expand(new BookingRecurrence(
+                1L, "GYM", LocalDate.of(2025, 12, 31), LocalDate.of(2025, 12, 1), null, SIX, SEVEN), 100));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceExpander.expand(new BookingRecurrence(
+                1L, "GYM", LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 31), null, SEVEN, SIX), 100));
+    }
+}
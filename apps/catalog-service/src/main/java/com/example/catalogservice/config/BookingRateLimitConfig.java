@@ -0,0 +1,9 @@
+package com.example.catalogservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BookingRateLimitProperties.class)
+public class BookingRateLimitConfig {
+}
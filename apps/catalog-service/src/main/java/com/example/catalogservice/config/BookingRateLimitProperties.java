@@ -0,0 +1,30 @@
+package com.example.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "booking.rate-limit")
+public record BookingRateLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue User user,
+    @DefaultValue Global global
+) {
+
+    // Bucket per user id
+    public record User(
+        // Burst size
+        @DefaultValue("5") long capacity,
+        // Time to regain one token
+        @DefaultValue("2s") Duration refillInterval
+    ) {
+    }
+
+    // One bucket shared by all users, sized for what the booking pipeline can absorb
+    public record Global(
+        @DefaultValue("200") long capacity,
+        @DefaultValue("10ms") Duration refillInterval
+    ) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.catalogservice.config;
+
+import com.example.catalogservice.service.CatalogDataService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+@EnableConfigurationProperties(CatalogCacheProperties.class)
+public class CatalogCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer catalogInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                     CatalogDataService catalogDataService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> catalogDataService.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CatalogDataService.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
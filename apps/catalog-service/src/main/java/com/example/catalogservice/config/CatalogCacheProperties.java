@@ -0,0 +1,36 @@
+package com.example.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "catalog.cache")
+public record CatalogCacheProperties(
+    // TTL of the catalog entry in Redis
+    @DefaultValue("10m") Duration ttl,
+    @DefaultValue Near near,
+    @DefaultValue Refresh refresh
+) {
+
+    // In-process cache in front of Redis
+    public record Near(
+        @DefaultValue("16") long maxSize,
+        @DefaultValue("30s") Duration ttl
+    ) {
+    }
+
+    // Rebuild coordination across requests and pods
+    public record Refresh(
+        // How long the cluster-wide rebuild lock is held at most
+        @DefaultValue("5s") Duration lockTimeout,
+        // How long a pod that lost the lock waits for the winner before rebuilding on its own
+        @DefaultValue("2s") Duration waitTimeout,
+        @DefaultValue("50ms") Duration pollInterval,
+        // Early refresh aggressiveness; higher renews further ahead of expiry
+        @DefaultValue("1.0") double beta,
+        // Lower bound for the observed rebuild time used by early refresh
+        @DefaultValue("1s") Duration minRebuildTime
+    ) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.catalogservice.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Partition numbers of a topic, for @KafkaListener(topicPartitions = ...) listeners that read all
+ * of it, e.g. partitions = "#{@kafkaPartitionFinder.partitions('booking-events')}"
+ *
+ * The topic belongs to another service, so it may not exist yet when this pod starts. The lookup
+ * waits for it rather than guessing a partition count, and fails startup if it never appears.
+ */
+@Component
+public class KafkaPartitionFinder {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaPartitionFinder.class);
+
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final Duration maxWait;
+
+    public KafkaPartitionFinder(ConsumerFactory<Object, Object> consumerFactory,
+                                @Value("${kafka.topics.partition-lookup-timeout:2m}") Duration maxWait) {
+        this.consumerFactory = consumerFactory;
+        this.maxWait = maxWait;
+    }
+
+    public String[] partitions(String topic) {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        // Looking a topic up must not create it with the broker's default partitions and retention
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, "false");
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(null, null, null, overrides)) {
+            while (true) {
+                List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+                if (partitions != null && !partitions.isEmpty()) {
+                    return partitions.stream()
+                            .map(partition -> String.valueOf(partition.partition()))
+                            .toArray(String[]::new);
+                }
+                if (System.nanoTime() >= deadline) {
+                    throw new IllegalStateException("Topic " + topic + " did not appear within " + maxWait);
+                }
+                logger.info("Waiting for topic {} to be created", topic);
+                Thread.sleep(RETRY_INTERVAL.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for topic " + topic, e);
+        }
+    }
+}
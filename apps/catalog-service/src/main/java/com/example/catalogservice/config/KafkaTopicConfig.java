@@ -1,6 +1,7 @@
 package com.example.catalogservice.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,10 +9,14 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicConfig {
     
+    // Upper bound on active consumers per group; KafkaAdmin adds partitions to an existing topic but never removes them
+    @Value("${kafka.topics.booking-requests.partitions:6}")
+    private int bookingRequestsPartitions;
+    
     @Bean
     public NewTopic bookingRequestsTopic() {
         return TopicBuilder.name("booking-requests")
-                .partitions(1)
+                .partitions(bookingRequestsPartitions)
                 .replicas(1)  // Single replica for single broker
                 .build();
     }
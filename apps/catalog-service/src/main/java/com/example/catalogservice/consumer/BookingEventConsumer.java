@@ -0,0 +1,70 @@
+package com.example.catalogservice.consumer;
+
+import com.example.catalogservice.dto.BookingEventDto;
+import com.example.catalogservice.serializer.BookingWireFormat;
+import com.example.catalogservice.service.SlotAvailabilityIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@Service
+public class BookingEventConsumer implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(BookingEventConsumer.class);
+
+    static final String TOPIC = "booking-events";
+
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final ObjectMapper objectMapper;
+
+    public BookingEventConsumer(SlotAvailabilityIndex availabilityIndex,
+                                ObjectMapper objectMapper) {
+        this.availabilityIndex = availabilityIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    // Every pod keeps its own index, so each one assigns itself the whole topic and reads it from the
+    // start. No group and no commits: a restart leaves nothing behind on the broker
+    @KafkaListener(topicPartitions = @TopicPartition(topic = TOPIC, partitions = "#{@kafkaPartitionFinder.partitions('" + TOPIC + "')}"),
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"})
+    public void consumeBookingEvent(ConsumerRecord<String, byte[]> record) {
+        try {
+            BookingEventDto event = decode(record);
+            if (!BookingEventDto.BOOKING_CONFIRMED.equals(event.eventType())) {
+                return;
+            }
+            availabilityIndex.markBooked(event.amenityId(), event.startTime(), event.endTime());
+            logger.info("Marked {} booked from {} to {}", event.amenityId(), event.startTime(), event.endTime());
+        } catch (Exception e) {
+            logger.error("Failed to apply booking event: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // The index starts empty, so every booking on the topic is needed
+        callback.seekToBeginning(assignments.keySet());
+    }
+
+    private BookingEventDto decode(ConsumerRecord<String, byte[]> record) throws IOException {
+        Header format = record.headers().lastHeader(BookingWireFormat.HEADER);
+        if (format == null) {
+            return objectMapper.readValue(record.value(), BookingEventDto.class);
+        }
+        String name = new String(format.value(), StandardCharsets.UTF_8);
+        if (!BookingWireFormat.BINARY_V1.equals(name)) {
+            throw new IllegalArgumentException("Unsupported booking-format: " + name);
+        }
+        return BookingWireFormat.decodeEvent(record.value());
+    }
+}
@@ -1,38 +1,63 @@
 package com.example.catalogservice.controller;
 
 import com.example.catalogservice.dto.BookingRequestDto;
+import com.example.catalogservice.dto.CatalogSnapshot;
 import com.example.catalogservice.dto.ServiceDetailDto;
+import com.example.catalogservice.service.BookingIdempotencyStore;
+import com.example.catalogservice.service.BookingRateLimiter;
 import com.example.catalogservice.service.CatalogDataService;
 
 import com.example.catalogservice.producer.BookingProducer;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/api/catalog")
 @Tag(name = "Service Catalog", description = "Browse services and available time slots")
 public class CatalogController {
     
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    
     private final BookingProducer bookingProducer;
     private final CatalogDataService catalogDataService;
+    private final BookingRateLimiter bookingRateLimiter;
+    private final BookingIdempotencyStore idempotencyStore;
     
-    public CatalogController(BookingProducer bookingProducer, CatalogDataService catalogDataService) {
+    public CatalogController(BookingProducer bookingProducer, CatalogDataService catalogDataService,
+                             BookingRateLimiter bookingRateLimiter, BookingIdempotencyStore idempotencyStore) {
         this.bookingProducer = bookingProducer;
         this.catalogDataService = catalogDataService;
+        this.bookingRateLimiter = bookingRateLimiter;
+        this.idempotencyStore = idempotencyStore;
     }
     
     @Operation(
             summary = "Get all available services",
-            description = "Returns list of all available services in the apartment complex (amenities and repairs)"
+            description = "Returns list of all available services in the apartment complex (amenities and repairs). "
+                    + "Without filters, responses carry a strong ETag; send it back in If-None-Match to get 304 while the catalog is unchanged. "
+                    + "Use type to restrict to AMENITY or REPAIR, and from/to to restrict slots to a window of at most 31 days."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -42,16 +67,92 @@ public class CatalogController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ServiceDetailDto.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Catalog unchanged since the ETag sent in If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown type or invalid slot window",
+                    content = @Content(mediaType = "application/json")
             )
     })
     @GetMapping("/services")
-    public ResponseEntity<List<ServiceDetailDto>> getServices() {
-        return ResponseEntity.ok(catalogDataService.getAllServices());
+    public ResponseEntity<?> getServices(
+            @Parameter(description = "Service type (AMENITY/REPAIR)", example = "AMENITY")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Only slots ending after this time", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only slots starting before this time", example = "2025-12-02T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest webRequest) {
+        if (type != null || from != null || to != null) {
+            return ResponseEntity.ok(catalogDataService.findServices(type, from, to));
+        }
+
+        // Served as the pre-serialized bytes held in the near-cache; no Jackson round trip per request
+        CatalogSnapshot snapshot = catalogDataService.getCatalogSnapshot();
+        if (webRequest.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
     }
     
+    @Operation(
+            summary = "Get a single service",
+            description = "Returns one service with its time slots, optionally restricted to the from/to window"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved service",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServiceDetailDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Unknown service id")
+    })
+    @GetMapping("/services/{id}")
+    public ResponseEntity<ServiceDetailDto> getService(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.of(catalogDataService.findService(id, from, to));
+    }
+
+    @Operation(
+            summary = "Find the next free start time for a service",
+            description = "Returns the earliest start at or after 'from' with 'durationMinutes' of free time, based on confirmed bookings"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Next free start time found",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "No free time within the next 31 days")
+    })
+    @GetMapping("/services/{id}/next-available")
+    public ResponseEntity<Map<String, Object>> getNextAvailable(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "60") long durationMinutes) {
+        Duration duration = Duration.ofMinutes(durationMinutes);
+        return ResponseEntity.of(catalogDataService.findNextAvailableStart(id, from, duration)
+                .map(start -> Map.<String, Object>of(
+                        "serviceId", id,
+                        "startTime", start,
+                        "endTime", start.plus(duration))));
+    }
+
     @Operation(
             summary = "Request booking for a service",
-            description = "Initiates a booking request which will be processed asynchronously via Kafka"
+            description = "Initiates a booking request which will be processed asynchronously via Kafka. "
+                    + "Responds once the broker has acknowledged the request, with the generated requestId. "
+                    + "Retries carrying the same Idempotency-Key get the original requestId back and are not published again."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -63,16 +164,104 @@ public class CatalogController {
                     responseCode = "400",
                     description = "Invalid booking request",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Requested slot is already booked",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too many booking requests for this user or overall; retry after the Retry-After seconds",
+                    content = @Content(mediaType = "application/json")
             )
     })
     @PostMapping("/bookings")
     @CircuitBreaker(name = "booking", fallbackMethod = "bookingFallback")
-    public ResponseEntity<String> requestBooking(@RequestBody BookingRequestDto request) {
-        bookingProducer.sendBookingRequest(request);
-        return ResponseEntity.accepted().body("{\"message\": \"Booking request submitted\", \"status\": \"PENDING\"}");
+    public CompletableFuture<ResponseEntity<String>> requestBooking(
+            @RequestBody BookingRequestDto request,
+            @Parameter(description = "Client-chosen key that makes retries of this request safe", example = "3b7d7c1e-booking-42")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        String invalid = validate(request);
+        if (invalid != null) {
+            // Returned rather than thrown so the circuit breaker does not count client errors
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("{\"message\": \"" + invalid + "\", \"status\": \"REJECTED\"}"));
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            // Returned rather than thrown so the circuit breaker does not count client errors
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("{\"message\": \"Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters\"}"));
+        }
+        // A replay must get the original answer, even though its slot now looks booked or the
+        // client is over its rate: it is answered before the limiter is charged
+        String requestId = UUID.randomUUID().toString();
+        if (idempotencyKey != null) {
+            Optional<String> originalRequestId = idempotencyStore.putIfAbsent(request.userId(), idempotencyKey, requestId);
+            if (originalRequestId.isPresent()) {
+                return CompletableFuture.completedFuture(accepted(originalRequestId.get()));
+            }
+        }
+        // Shed excess load before it costs a Kafka record and a booking-service write
+        Optional<Duration> retryAfter = bookingRateLimiter.tryAcquire(request.userId());
+        if (retryAfter.isPresent()) {
+            // Nothing was sent under the key, so a later retry with it is a new request
+            releaseIdempotencyKey(request, idempotencyKey, requestId);
+            long seconds = Math.max(1, (retryAfter.get().toMillis() + 999) / 1000);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                    .body("{\"message\": \"Too many booking requests. Please retry later.\", \"status\": \"REJECTED\"}"));
+        }
+        // Reject slots we already know are taken before paying for the Kafka round trip
+        if (!catalogDataService.isSlotAvailable(request.serviceId(), request.startTime(), request.endTime())) {
+            String nextStart = catalogDataService.findNextAvailableStart(request.serviceId(), request.startTime(),
+                            Duration.between(request.startTime(), request.endTime()))
+                    .map(start -> ", \"nextAvailableStart\": \"" + start + "\"")
+                    .orElse("");
+            releaseIdempotencyKey(request, idempotencyKey, requestId);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("{\"message\": \"Requested slot is already booked\", \"status\": \"REJECTED\"" + nextStart + "}"));
+        }
+        // 202 only once the broker has the record; failures and timeouts reach the circuit breaker.
+        // After a timeout the record may still be published, so the key is only released once the send fails
+        return bookingProducer.sendBookingRequest(request, requestId, idempotencyKey,
+                        () -> releaseIdempotencyKey(request, idempotencyKey, requestId))
+                .thenApply(this::accepted);
+    }
+
+    /**
+     * The problem with the request body, or null if it can be checked against the availability index
+     */
+    private static String validate(BookingRequestDto request) {
+        if (request.userId() == null || request.serviceId() == null || request.serviceId().isBlank()) {
+            return "userId and serviceId are required";
+        }
+        if (request.startTime() == null || request.endTime() == null) {
+            return "startTime and endTime are required";
+        }
+        if (!request.endTime().isAfter(request.startTime())) {
+            return "endTime must be after startTime";
+        }
+        return null;
+    }
+
+    private ResponseEntity<String> accepted(String requestId) {
+        return ResponseEntity.accepted().body(
+                "{\"message\": \"Booking request submitted\", \"status\": \"PENDING\", \"requestId\": \"" + requestId + "\"}");
+    }
+
+    private void releaseIdempotencyKey(BookingRequestDto request, String idempotencyKey, String requestId) {
+        if (idempotencyKey != null) {
+            idempotencyStore.release(request.userId(), idempotencyKey, requestId);
+        }
+    }
+
+    public CompletableFuture<ResponseEntity<String>> bookingFallback(BookingRequestDto request, String idempotencyKey, Throwable t) {
+        return CompletableFuture.completedFuture(ResponseEntity.status(503).body("{\"message\": \"Booking service is currently unavailable. Please try again later.\", \"status\": \"FAILED\"}"));
     }
 
-    public ResponseEntity<String> bookingFallback(BookingRequestDto request, Throwable t) {
-        return ResponseEntity.status(503).body("{\"message\": \"Booking service is currently unavailable. Please try again later.\", \"status\": \"FAILED\"}");
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", ex.getMessage()));
     }
 }
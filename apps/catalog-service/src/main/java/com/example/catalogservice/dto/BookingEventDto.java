@@ -0,0 +1,17 @@
+package com.example.catalogservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking outcome published by booking-service on the booking-events topic
+ */
+public record BookingEventDto(
+    String eventType,
+    Long bookingId,
+    Long userId,
+    String amenityId,
+    LocalDateTime startTime,
+    LocalDateTime endTime
+) {
+    public static final String BOOKING_CONFIRMED = "BookingConfirmed";
+}
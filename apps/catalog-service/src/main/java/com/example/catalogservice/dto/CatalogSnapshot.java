@@ -0,0 +1,10 @@
+package com.example.catalogservice.dto;
+
+/**
+ * Catalog as ready-to-send UTF-8 JSON, with a strong ETag derived from its content.
+ */
+public record CatalogSnapshot(
+    byte[] body,
+    String etag
+) {
+}
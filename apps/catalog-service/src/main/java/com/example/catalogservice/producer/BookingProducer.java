@@ -1,26 +1,102 @@
 package com.example.catalogservice.producer;
 
 import com.example.catalogservice.dto.BookingRequestDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class BookingProducer {
     private static final Logger logger = LoggerFactory.getLogger(BookingProducer.class);
     private static final String TOPIC = "booking-requests";
+    public static final String REQUEST_ID_HEADER = "request-id";
+    public static final String IDEMPOTENCY_KEY_HEADER = "idempotency-key";
     
     private final KafkaTemplate<String, BookingRequestDto> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ackTimeout;
     
-    public BookingProducer(KafkaTemplate<String, BookingRequestDto> kafkaTemplate) {
+    public BookingProducer(KafkaTemplate<String, BookingRequestDto> kafkaTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${booking.producer.ack-timeout:5s}") Duration ackTimeout) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ackTimeout = ackTimeout;
     }
     
-    public void sendBookingRequest(BookingRequestDto request) {
-        logger.info("Sending booking request to Kafka topic '{}': userId={}, serviceId={}", 
-            TOPIC, request.userId(), request.serviceId());
-        kafkaTemplate.send(TOPIC, request);
-        logger.info("Successfully sent booking request to Kafka");
+    /**
+     * Publishes the request and completes with its generated request id once the broker has
+     * acknowledged the record, or exceptionally on send failure or after the ack timeout.
+     */
+    public CompletableFuture<String> sendBookingRequest(BookingRequestDto request) {
+        return sendBookingRequest(request, UUID.randomUUID().toString(), null, () -> { });
+    }
+
+    /**
+     * Same as {@link #sendBookingRequest(BookingRequestDto)} with a caller-chosen request id and,
+     * if not null, the client's idempotency key as a header so booking-service can drop replays.
+     *
+     * The ack timeout only stops waiting: the producer keeps retrying the record until
+     * delivery.timeout.ms. onSendFailure runs once the send itself has failed, so the record
+     * will not be published, which a timeout does not tell.
+     */
+    public CompletableFuture<String> sendBookingRequest(BookingRequestDto request, String requestId, String idempotencyKey,
+                                                        Runnable onSendFailure) {
+        logger.info("Sending booking request {} to Kafka topic '{}': userId={}, serviceId={}",
+            requestId, TOPIC, request.userId(), request.serviceId());
+
+        ProducerRecord<String, BookingRequestDto> record = new ProducerRecord<>(TOPIC, keyOf(request), request);
+        record.headers().add(REQUEST_ID_HEADER, requestId.getBytes(StandardCharsets.UTF_8));
+        if (idempotencyKey != null) {
+            record.headers().add(IDEMPOTENCY_KEY_HEADER, idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        }
+
+        long started = System.nanoTime();
+        CompletableFuture<SendResult<String, BookingRequestDto>> send = kafkaTemplate.send(record);
+        send.whenComplete((result, error) -> {
+            if (error != null) {
+                onSendFailure.run();
+            }
+        });
+        // orTimeout() completes the future it is called on, so it goes on a copy: the send keeps its real outcome
+        return send.copy()
+                .orTimeout(ackTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    // Time from send to broker acknowledgement, as seen by callers
+                    Timer.builder("booking.requests.send")
+                            .description("Time until the broker acknowledged a booking request")
+                            .tag("outcome", error == null ? "acked" : "failed")
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    if (error == null) {
+                        logger.info("Booking request {} acknowledged: partition={}, offset={}", requestId,
+                            result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                    } else {
+                        logger.error("Booking request {} was not acknowledged: {}", requestId, error.getMessage());
+                    }
+                })
+                .thenApply(result -> requestId);
+    }
+
+    /**
+     * Requests for the same amenity and day share a partition, so competing requests for a slot
+     * are consumed in the order they were accepted while different amenities spread across partitions.
+     */
+    static String keyOf(BookingRequestDto request) {
+        return request.startTime() == null
+                ? request.serviceId()
+                : request.serviceId() + ":" + request.startTime().toLocalDate();
     }
 }
@@ -0,0 +1,150 @@
+package com.example.catalogservice.repository;
+
+import com.example.catalogservice.dto.ServiceDetailDto;
+import com.example.catalogservice.model.ServiceOffering;
+import com.example.catalogservice.model.TimeSlot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-service view of the catalog in Redis, so partial reads only fetch and parse what was asked for.
+ *
+ * Layout:
+ * - catalog:service-index          hash of service id -> service type
+ * - catalog:service:{id}           hash with a "meta" field (ServiceOffering JSON) and one
+ *                                  field per day ("2025-12-03") holding that day's slots as JSON
+ */
+@Repository
+public class CatalogIndexRepository {
+
+    private static final String INDEX_KEY = "catalog:service-index";
+    private static final String SERVICE_KEY_PREFIX = "catalog:service:";
+    private static final String META_FIELD = "meta";
+    private static final TypeReference<List<TimeSlot>> SLOTS_TYPE = new TypeReference<>() {};
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CatalogIndexRepository(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Replaces the per-service hashes and the index in a single MULTI/EXEC, sent as one pipeline.
+     */
+    public void saveAll(List<ServiceDetailDto> services, Duration ttl) throws JsonProcessingException {
+        Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
+        for (ServiceDetailDto service : services) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put(META_FIELD, objectMapper.writeValueAsString(
+                    new ServiceOffering(service.id(), service.name(), service.description(), service.type(), true)));
+            Map<LocalDate, List<TimeSlot>> slotsByDay = new TreeMap<>();
+            for (TimeSlot slot : service.availableSlots()) {
+                slotsByDay.computeIfAbsent(slot.startTime().toLocalDate(), day -> new ArrayList<>()).add(slot);
+            }
+            for (Map.Entry<LocalDate, List<TimeSlot>> day : slotsByDay.entrySet()) {
+                fields.put(day.getKey().toString(), objectMapper.writeValueAsString(day.getValue()));
+            }
+            hashes.put(service.id(), fields);
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.multi();
+            redis.del(INDEX_KEY);
+            for (ServiceDetailDto service : services) {
+                String key = SERVICE_KEY_PREFIX + service.id();
+                redis.del(key);
+                redis.hMSet(key, hashes.get(service.id()));
+                redis.pExpire(key, ttl.toMillis());
+                redis.hSet(INDEX_KEY, service.id(), service.type());
+            }
+            redis.pExpire(INDEX_KEY, ttl.toMillis());
+            redis.exec();
+            return null;
+        });
+    }
+
+    /**
+     * Service id -> type for every service in the catalog; empty if the index has expired.
+     */
+    public Map<String, String> findServiceTypes() {
+        return redisTemplate.<String, String>opsForHash().entries(INDEX_KEY);
+    }
+
+    /**
+     * Loads the given services with one pipelined HGETALL / HMGET per service.
+     *
+     * @param days days whose slots to fetch, or null for all days
+     * @return services in the order requested; ids without a hash in Redis are skipped
+     */
+    @SuppressWarnings("unchecked")
+    public List<ServiceDetailDto> findServices(Collection<String> ids, List<LocalDate> days) throws JsonProcessingException {
+        List<String> orderedIds = new ArrayList<>(ids);
+        String[] fields = days == null ? null : fieldsFor(days);
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String id : orderedIds) {
+                if (fields == null) {
+                    redis.hGetAll(SERVICE_KEY_PREFIX + id);
+                } else {
+                    redis.hMGet(SERVICE_KEY_PREFIX + id, fields);
+                }
+            }
+            return null;
+        });
+
+        List<ServiceDetailDto> services = new ArrayList<>();
+        for (Object reply : replies) {
+            String meta;
+            List<String> dayValues;
+            if (fields == null) {
+                Map<String, String> hash = new TreeMap<>((Map<String, String>) reply);
+                meta = hash.remove(META_FIELD);
+                dayValues = new ArrayList<>(hash.values());
+            } else {
+                List<String> values = (List<String>) reply;
+                meta = values.get(0);
+                dayValues = values.subList(1, values.size());
+            }
+            if (meta == null) {
+                continue;
+            }
+
+            ServiceOffering offering = objectMapper.readValue(meta, ServiceOffering.class);
+            List<TimeSlot> slots = new ArrayList<>();
+            for (String dayValue : dayValues) {
+                if (dayValue != null) {
+                    slots.addAll(objectMapper.readValue(dayValue, SLOTS_TYPE));
+                }
+            }
+            services.add(new ServiceDetailDto(offering.id(), offering.name(), offering.description(), offering.type(), slots));
+        }
+        return services;
+    }
+
+    private String[] fieldsFor(List<LocalDate> days) {
+        String[] fields = new String[days.size() + 1];
+        fields[0] = META_FIELD;
+        for (int i = 0; i < days.size(); i++) {
+            fields[i + 1] = days.get(i).toString();
+        }
+        return fields;
+    }
+}
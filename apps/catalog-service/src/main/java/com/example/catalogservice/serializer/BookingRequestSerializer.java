@@ -3,15 +3,18 @@ package com.example.catalogservice.serializer;
 import com.example.catalogservice.dto.BookingRequestDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class BookingRequestSerializer implements Serializer<BookingRequestDto> {
     private static final Logger logger = LoggerFactory.getLogger(BookingRequestSerializer.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean binary;
 
     public BookingRequestSerializer() {
         this.objectMapper.registerModule(new JavaTimeModule());
@@ -20,6 +23,17 @@ public class BookingRequestSerializer implements Serializer<BookingRequestDto> {
 
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
+        // Only switch to binary once every consumer of the topic understands the booking-format header
+        binary = "binary".equals(String.valueOf(configs.get(BookingWireFormat.FORMAT_CONFIG)));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, BookingRequestDto data) {
+        if (binary && data != null) {
+            headers.add(BookingWireFormat.HEADER, BookingWireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8));
+            return BookingWireFormat.encode(data);
+        }
+        return serialize(topic, data);
     }
 
     @Override
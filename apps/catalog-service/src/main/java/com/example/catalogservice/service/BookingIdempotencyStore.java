@@ -0,0 +1,71 @@
+package com.example.catalogservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Remembers which request id each client Idempotency-Key was first accepted under, so retries of
+ * an accepted booking are answered with the original request id instead of being published again.
+ * Keys are scoped to the user and expire after {@code booking.idempotency.ttl}.
+ */
+@Service
+public class BookingIdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(BookingIdempotencyStore.class);
+
+    private static final String KEY_PREFIX = "idempotency:bookings:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public BookingIdempotencyStore(StringRedisTemplate redisTemplate,
+                                   @Value("${booking.idempotency.ttl:24h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Claims the key for {@code requestId}.
+     *
+     * @return empty if the key was claimed, otherwise the request id it was first claimed for
+     */
+    public Optional<String> putIfAbsent(Long userId, String idempotencyKey, String requestId) {
+        String key = keyOf(userId, idempotencyKey);
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, requestId, ttl))) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            // booking-service still dedupes on the key carried in the Kafka header
+            logger.warn("Idempotency store unavailable, accepting request {}: {}", requestId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Frees a key whose request was never published, so the client's retry is not answered with a dead request id.
+     */
+    public void release(Long userId, String idempotencyKey, String requestId) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(keyOf(userId, idempotencyKey)), requestId);
+        } catch (Exception e) {
+            logger.error("Error releasing idempotency key for request {}", requestId, e);
+        }
+    }
+
+    private static String keyOf(Long userId, String idempotencyKey) {
+        return KEY_PREFIX + userId + ":" + idempotencyKey;
+    }
+}
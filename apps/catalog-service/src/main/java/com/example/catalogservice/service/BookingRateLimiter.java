@@ -0,0 +1,90 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.config.BookingRateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Token buckets for booking requests, one per user and one global, kept in Redis so the limits
+ * hold across replicas. Both buckets are checked and debited in a single script, so a request
+ * rejected by one bucket never consumes a token from the other.
+ */
+@Service
+public class BookingRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(BookingRateLimiter.class);
+
+    private static final String GLOBAL_KEY = "ratelimit:bookings:global";
+    private static final String USER_KEY_PREFIX = "ratelimit:bookings:user:";
+
+    // KEYS: buckets; ARGV: capacity and refill interval (ms) per bucket.
+    // Returns 0 if a token was taken from every bucket, otherwise the ms until all buckets have one.
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local tokens = {}
+            local wait = 0
+            for i, key in ipairs(KEYS) do
+              local capacity = tonumber(ARGV[2 * i - 1])
+              local interval = tonumber(ARGV[2 * i])
+              local state = redis.call('HMGET', key, 'tokens', 'ts')
+              local available = tonumber(state[1]) or capacity
+              local ts = tonumber(state[2]) or now
+              available = math.min(capacity, available + math.max(0, now - ts) / interval)
+              if available < 1 then
+                wait = math.max(wait, math.ceil((1 - available) * interval))
+              end
+              tokens[i] = available
+            end
+            if wait > 0 then
+              return wait
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('HSET', key, 'tokens', tostring(tokens[i] - 1), 'ts', now)
+              redis.call('PEXPIRE', key, math.ceil(tonumber(ARGV[2 * i - 1]) * tonumber(ARGV[2 * i])))
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingRateLimitProperties properties;
+
+    public BookingRateLimiter(StringRedisTemplate redisTemplate, BookingRateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Takes one token from the user's bucket and the global bucket.
+     *
+     * @return empty if the request is admitted, otherwise how long until it could be
+     */
+    public Optional<Duration> tryAcquire(Long userId) {
+        if (!properties.enabled()) {
+            return Optional.empty();
+        }
+        BookingRateLimitProperties.User user = properties.user();
+        BookingRateLimitProperties.Global global = properties.global();
+        try {
+            Long waitMillis = redisTemplate.execute(ACQUIRE_SCRIPT,
+                    List.of(USER_KEY_PREFIX + userId, GLOBAL_KEY),
+                    String.valueOf(user.capacity()), String.valueOf(user.refillInterval().toMillis()),
+                    String.valueOf(global.capacity()), String.valueOf(global.refillInterval().toMillis()));
+            if (waitMillis == null || waitMillis <= 0) {
+                return Optional.empty();
+            }
+            return Optional.of(Duration.ofMillis(waitMillis));
+        } catch (Exception e) {
+            // Admission control must not take bookings down with Redis
+            logger.warn("Rate limiter unavailable, admitting booking request: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -1,60 +1,436 @@
 package com.example.catalogservice.service;
 
+import com.example.catalogservice.config.CatalogCacheProperties;
+import com.example.catalogservice.dto.CatalogSnapshot;
 import com.example.catalogservice.dto.ServiceDetailDto;
 import com.example.catalogservice.model.TimeSlot;
+import com.example.catalogservice.repository.CatalogIndexRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class CatalogDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(CatalogDataService.class);
     private static final String CATALOG_KEY = "catalog:services";
+    private static final String LOCK_KEY = "catalog:services:lock";
+    public static final String INVALIDATION_CHANNEL = "catalog:invalidations";
+    private static final Set<String> SERVICE_TYPES = Set.of("AMENITY", "REPAIR");
+    private static final int MAX_WINDOW_DAYS = 31;
+
+    // Release the rebuild lock only if this pod still owns it
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
 
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
+    private final CatalogIndexRepository catalogIndexRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final TaskExecutor refreshExecutor;
+    private final CatalogCacheProperties properties;
+
+    // Catalog kept in-process as encoded bytes so hot reads skip both the Redis round trip and Jackson
+    private final Cache<String, CachedCatalog> nearCache;
+
+    // Lets a pod ignore its own invalidation messages after it has just repopulated the entry
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Last catalog this pod has seen, served while another pod holds the rebuild lock
+    private volatile CachedCatalog lastKnown;
+    private volatile long lastRebuildMillis;
+    private final AtomicBoolean refreshInFlight = new AtomicBoolean();
 
-    public CatalogDataService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+    public CatalogDataService(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              CatalogIndexRepository catalogIndexRepository,
+                              SlotAvailabilityIndex availabilityIndex,
+                              TaskExecutor refreshExecutor,
+                              CatalogCacheProperties properties) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.catalogIndexRepository = catalogIndexRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.refreshExecutor = refreshExecutor;
+        this.properties = properties;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.near().maxSize())
+                .expireAfterWrite(properties.near().ttl())
+                .build();
     }
 
     public List<ServiceDetailDto> getAllServices() {
+        CachedCatalog catalog = currentCatalog();
+        List<ServiceDetailDto> services = withAvailability(catalog).services();
+        return services != null ? services : decode(catalog);
+    }
+
+    /**
+     * Returns the catalog ready to be written to the response as-is. Until a booking is known the
+     * bytes are exactly those stored in Redis; afterwards they are re-encoded with slot availability
+     * once per cached entry and booking change, not per request.
+     */
+    public CatalogSnapshot getCatalogSnapshot() {
+        return withAvailability(currentCatalog()).snapshot();
+    }
+
+    public boolean isSlotAvailable(String serviceId, LocalDateTime start, LocalDateTime end) {
+        return availabilityIndex.isFree(serviceId, start, end);
+    }
+
+    public Optional<LocalDateTime> findNextAvailableStart(String serviceId, LocalDateTime from, Duration duration) {
+        return availabilityIndex.nextFreeSlot(serviceId, from, duration);
+    }
+
+    /**
+     * Services matching the optional type, with slots restricted to the optional [from, to) window.
+     * Only the matching services and days are read from Redis.
+     */
+    public List<ServiceDetailDto> findServices(String type, LocalDateTime from, LocalDateTime to) {
+        if (type != null && !SERVICE_TYPES.contains(type)) {
+            throw new IllegalArgumentException("Unknown service type: " + type);
+        }
+        List<LocalDate> days = daysInWindow(from, to);
+
+        try {
+            Map<String, String> serviceTypes = catalogIndexRepository.findServiceTypes();
+            if (!serviceTypes.isEmpty()) {
+                List<String> ids = serviceTypes.entrySet().stream()
+                        .filter(entry -> type == null || type.equals(entry.getValue()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+                return ids.isEmpty() ? List.of()
+                        : withinWindow(applyAvailability(catalogIndexRepository.findServices(ids, days)), from, to);
+            }
+        } catch (Exception e) {
+            logger.error("Error reading catalog index from Redis", e);
+        }
+
+        // Index expired or Redis unavailable: filter the full catalog instead
+        return withinWindow(getAllServices().stream()
+                .filter(service -> type == null || type.equals(service.type()))
+                .toList(), from, to);
+    }
+
+    public Optional<ServiceDetailDto> findService(String id, LocalDateTime from, LocalDateTime to) {
+        List<LocalDate> days = daysInWindow(from, to);
+
+        try {
+            List<ServiceDetailDto> services = catalogIndexRepository.findServices(List.of(id), days);
+            if (!services.isEmpty()) {
+                return Optional.of(withinWindow(applyAvailability(services), from, to).get(0));
+            }
+        } catch (Exception e) {
+            logger.error("Error reading service {} from Redis", id, e);
+        }
+
+        return withinWindow(getAllServices().stream()
+                .filter(service -> service.id().equals(id))
+                .toList(), from, to).stream().findFirst();
+    }
+
+    private List<LocalDate> daysInWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Slot window needs both 'from' and 'to', with 'from' before 'to'");
+        }
+        long days = ChronoUnit.DAYS.between(from.toLocalDate(), to.toLocalDate()) + 1;
+        if (days > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Slot window cannot exceed " + MAX_WINDOW_DAYS + " days");
+        }
+        return from.toLocalDate().datesUntil(to.toLocalDate().plusDays(1)).toList();
+    }
+
+    private List<ServiceDetailDto> withinWindow(List<ServiceDetailDto> services, LocalDateTime from, LocalDateTime to) {
+        if (from == null) {
+            return services;
+        }
+        return services.stream()
+                .map(service -> new ServiceDetailDto(service.id(), service.name(), service.description(), service.type(),
+                        service.availableSlots().stream()
+                                .filter(slot -> slot.startTime().isBefore(to) && slot.endTime().isAfter(from))
+                                .toList()))
+                .toList();
+    }
+
+    private AvailabilityView withAvailability(CachedCatalog catalog) {
+        long version = availabilityIndex.version();
+        AvailabilityView view = catalog.availability;
+        if (view != null && view.version() == version) {
+            return view;
+        }
+        if (version == 0) {
+            // No bookings seen yet: the stored bytes are already accurate
+            view = new AvailabilityView(0, catalog.snapshot(), null);
+        } else {
+            List<ServiceDetailDto> stored = decode(catalog);
+            List<ServiceDetailDto> services = applyAvailability(stored);
+            CatalogSnapshot snapshot = services.equals(stored) ? catalog.snapshot() : snapshotOf(encode(services));
+            view = new AvailabilityView(version, snapshot, services);
+        }
+        catalog.availability = view;
+        return view;
+    }
+
+    private List<ServiceDetailDto> applyAvailability(List<ServiceDetailDto> services) {
+        return services.stream()
+                .map(service -> new ServiceDetailDto(service.id(), service.name(), service.description(), service.type(),
+                        service.availableSlots().stream()
+                                .map(slot -> new TimeSlot(slot.slotId(), slot.startTime(), slot.endTime(),
+                                        slot.available() && availabilityIndex.isFree(service.id(), slot.startTime(), slot.endTime())))
+                                .toList()))
+                .toList();
+    }
+
+    private CachedCatalog currentCatalog() {
+        // 0. In-process near-cache; concurrent misses on this pod share a single load
+        CachedCatalog catalog = nearCache.get(CATALOG_KEY, key -> loadCatalog());
+        if (shouldRefreshEarly(catalog)) {
+            scheduleRefresh();
+        }
+        return catalog;
+    }
+
+    private List<ServiceDetailDto> decode(CachedCatalog catalog) {
+        List<ServiceDetailDto> services = catalog.services;
+        if (services == null) {
+            try {
+                services = objectMapper.readValue(catalog.snapshot().body(), new TypeReference<List<ServiceDetailDto>>() {});
+            } catch (IOException e) {
+                throw new IllegalStateException("Cached catalog is not valid JSON", e);
+            }
+            catalog.services = services;
+        }
+        return services;
+    }
+
+    /**
+     * Drops the local copy when another pod announces that it rewrote the catalog in Redis.
+     */
+    public void onInvalidation(String publisherId) {
+        if (instanceId.equals(publisherId)) {
+            return;
+        }
+        logger.info("Catalog invalidated by instance {}, evicting near-cache", publisherId);
+        nearCache.invalidate(CATALOG_KEY);
+    }
+
+    private CachedCatalog loadCatalog() {
         // 1. Try to fetch from Redis
+        CachedCatalog cached = readFromRedis();
+        if (cached != null) {
+            return cached;
+        }
+
+        // 2. If not in cache, only the pod holding the lock regenerates the data
+        String lockToken = tryLock();
+        if (lockToken != null) {
+            try {
+                return rebuild();
+            } finally {
+                unlock(lockToken);
+            }
+        }
+
+        // 3. Another pod is rebuilding: serve the stale copy, or wait for the new entry
+        CachedCatalog stale = lastKnown;
+        if (stale != null) {
+            logger.info("Catalog rebuild in progress on another instance, serving stale copy");
+            return stale;
+        }
+        CachedCatalog awaited = awaitRebuild();
+        if (awaited != null) {
+            return awaited;
+        }
+        logger.warn("Timed out waiting for catalog rebuild, generating locally");
+        List<ServiceDetailDto> services = generateMockData();
+        return remember(services, encode(services), 0);
+    }
+
+    private CachedCatalog readFromRedis() {
         try {
             String cachedData = redisTemplate.opsForValue().get(CATALOG_KEY);
             if (cachedData != null) {
                 logger.info("Fetching services from Redis cache");
-                return objectMapper.readValue(cachedData, new TypeReference<List<ServiceDetailDto>>() {});
+                Long ttlMillis = redisTemplate.getExpire(CATALOG_KEY, TimeUnit.MILLISECONDS);
+                long expiresAt = ttlMillis != null && ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+                return remember(null, cachedData.getBytes(StandardCharsets.UTF_8), expiresAt);
             }
         } catch (Exception e) {
             logger.error("Error reading from Redis", e);
         }
+        return null;
+    }
 
-        // 2. If not in cache, generate data
+    private CachedCatalog awaitRebuild() {
+        long deadline = System.nanoTime() + properties.refresh().waitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(properties.refresh().pollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            CachedCatalog cached = readFromRedis();
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private CachedCatalog rebuild() {
         logger.info("Generating services (cache miss)");
+        long started = System.nanoTime();
         List<ServiceDetailDto> services = generateMockData();
+        byte[] json = encode(services);
 
-        // 3. Store in Redis
+        // Store in Redis and tell the other pods to drop their near-cache copy
         try {
-            String json = objectMapper.writeValueAsString(services);
-            redisTemplate.opsForValue().set(CATALOG_KEY, json, 10, TimeUnit.MINUTES);
-        } catch (JsonProcessingException e) {
+            catalogIndexRepository.saveAll(services, properties.ttl());
+            redisTemplate.opsForValue().set(CATALOG_KEY, new String(json, StandardCharsets.UTF_8),
+                    properties.ttl().toMillis(), TimeUnit.MILLISECONDS);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId);
+        } catch (Exception e) {
             logger.error("Error writing to Redis", e);
         }
 
-        return services;
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return remember(services, json, System.currentTimeMillis() + properties.ttl().toMillis());
+    }
+
+    /**
+     * Probabilistic early expiration (XFetch): the closer the Redis entry is to expiring, and the
+     * longer a rebuild takes, the more likely a read is to trigger a background refresh. Renewal
+     * is spread over the last moments of the TTL instead of every reader missing at once.
+     */
+    private boolean shouldRefreshEarly(CachedCatalog catalog) {
+        if (catalog.expiresAtMillis() <= 0) {
+            return false;
+        }
+        long remaining = catalog.expiresAtMillis() - System.currentTimeMillis();
+        double delta = Math.max(lastRebuildMillis, properties.refresh().minRebuildTime().toMillis());
+        return remaining <= -delta * properties.refresh().beta() * Math.log(ThreadLocalRandom.current().nextDouble());
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                String lockToken = tryLock();
+                if (lockToken == null) {
+                    return;
+                }
+                try {
+                    logger.info("Refreshing catalog ahead of expiry");
+                    nearCache.put(CATALOG_KEY, rebuild());
+                } finally {
+                    unlock(lockToken);
+                }
+            } catch (Exception e) {
+                logger.error("Background catalog refresh failed", e);
+            } finally {
+                refreshInFlight.set(false);
+            }
+        });
+    }
+
+    private String tryLock() {
+        String token = instanceId + ":" + UUID.randomUUID();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(
+                    LOCK_KEY, token, properties.refresh().lockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            // Redis unavailable: nobody else can coordinate either, so rebuild locally
+            logger.error("Error acquiring catalog rebuild lock", e);
+            return token;
+        }
+    }
+
+    private void unlock(String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(LOCK_KEY), token);
+        } catch (Exception e) {
+            logger.error("Error releasing catalog rebuild lock", e);
+        }
+    }
+
+    private byte[] encode(List<ServiceDetailDto> services) {
+        try {
+            return objectMapper.writeValueAsBytes(services);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize catalog", e);
+        }
+    }
+
+    private CachedCatalog remember(List<ServiceDetailDto> services, byte[] json, long expiresAtMillis) {
+        CachedCatalog catalog = new CachedCatalog(snapshotOf(json), expiresAtMillis, services);
+        lastKnown = catalog;
+        return catalog;
+    }
+
+    private static CatalogSnapshot snapshotOf(byte[] json) {
+        return new CatalogSnapshot(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+
+    private static final class CachedCatalog {
+        private final CatalogSnapshot snapshot;
+        private final long expiresAtMillis;
+        // Decoded lazily; only callers that need DTOs pay for Jackson
+        private volatile List<ServiceDetailDto> services;
+        // Catalog with slot availability applied, for the index version it was computed at
+        private volatile AvailabilityView availability;
+
+        private CachedCatalog(CatalogSnapshot snapshot, long expiresAtMillis, List<ServiceDetailDto> services) {
+            this.snapshot = snapshot;
+            this.expiresAtMillis = expiresAtMillis;
+            this.services = services;
+        }
+
+        CatalogSnapshot snapshot() {
+            return snapshot;
+        }
+
+        long expiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+
+    private record AvailabilityView(long version, CatalogSnapshot snapshot, List<ServiceDetailDto> services) {
     }
 
     private List<ServiceDetailDto> generateMockData() {
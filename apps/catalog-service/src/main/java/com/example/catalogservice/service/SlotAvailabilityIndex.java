@@ -0,0 +1,133 @@
+package com.example.catalogservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory record of booked time per service and day, updated from booking events.
+ *
+ * Each day is a bitmap of fixed 15-minute cells (96 bits), so "is this slot free" is a
+ * nextSetBit over two words and "next free slot" is a scan over at most a few days of bits.
+ * Bookings are rounded outwards to whole cells.
+ */
+@Component
+public class SlotAvailabilityIndex {
+
+    private static final int CELL_MINUTES = 15;
+    private static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+    private static final int SEARCH_HORIZON_DAYS = 31;
+
+    private final Map<String, Map<LocalDate, BitSet>> bookedCells = new ConcurrentHashMap<>();
+    // Bumped on every change so readers can tell whether derived views are stale
+    private final AtomicLong version = new AtomicLong();
+
+    public long version() {
+        return version.get();
+    }
+
+    public void markBooked(String serviceId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, BitSet> days = bookedCells.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>());
+        forEachDay(start, end, (day, fromCell, toCell) -> {
+            BitSet cells = days.computeIfAbsent(day, d -> new BitSet(CELLS_PER_DAY));
+            synchronized (cells) {
+                cells.set(fromCell, toCell);
+            }
+            return true;
+        });
+        // Past days can no longer be booked
+        days.keySet().removeIf(day -> day.isBefore(LocalDate.now()));
+        version.incrementAndGet();
+    }
+
+    public boolean isFree(String serviceId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, BitSet> days = bookedCells.get(serviceId);
+        return days == null || endOfFirstConflict(days, start, end) == null;
+    }
+
+    /**
+     * Earliest start at or after {@code from} where {@code duration} of free time is available,
+     * searching at most {@value #SEARCH_HORIZON_DAYS} days ahead.
+     */
+    public Optional<LocalDateTime> nextFreeSlot(String serviceId, LocalDateTime from, Duration duration) {
+        Map<LocalDate, BitSet> days = bookedCells.getOrDefault(serviceId, Map.of());
+        long cellsNeeded = Math.max(1, (duration.toMinutes() + CELL_MINUTES - 1) / CELL_MINUTES);
+        LocalDateTime candidate = ceilToCell(from);
+        LocalDateTime horizon = candidate.plusDays(SEARCH_HORIZON_DAYS);
+
+        while (candidate.isBefore(horizon)) {
+            LocalDateTime blockedUntil = endOfFirstConflict(days, candidate, candidate.plusMinutes(cellsNeeded * CELL_MINUTES));
+            if (blockedUntil == null) {
+                return Optional.of(candidate);
+            }
+            // Jump straight past the booked run instead of stepping one cell at a time
+            candidate = blockedUntil;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns when the first booked run overlapping [start, end) ends, or null if the range is free.
+     */
+    private LocalDateTime endOfFirstConflict(Map<LocalDate, BitSet> days, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime[] conflictEnd = new LocalDateTime[1];
+        forEachDay(start, end, (day, fromCell, toCell) -> {
+            BitSet cells = days.get(day);
+            if (cells == null) {
+                return true;
+            }
+            synchronized (cells) {
+                int booked = cells.nextSetBit(fromCell);
+                if (booked < 0 || booked >= toCell) {
+                    return true;
+                }
+                conflictEnd[0] = day.atStartOfDay().plusMinutes((long) cells.nextClearBit(booked) * CELL_MINUTES);
+                return false;
+            }
+        });
+        return conflictEnd[0];
+    }
+
+    private boolean forEachDay(LocalDateTime start, LocalDateTime end, DayRangeVisitor visitor) {
+        LocalDateTime cursor = floorToCell(start);
+        LocalDateTime last = ceilToCell(end);
+        while (cursor.isBefore(last)) {
+            LocalDate day = cursor.toLocalDate();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            int fromCell = cellOf(cursor);
+            int toCell = last.isBefore(dayEnd) ? cellOf(last) : CELLS_PER_DAY;
+            if (!visitor.visit(day, fromCell, toCell)) {
+                return false;
+            }
+            cursor = dayEnd;
+        }
+        return true;
+    }
+
+    private static int cellOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / CELL_MINUTES;
+    }
+
+    private static LocalDateTime floorToCell(LocalDateTime time) {
+        LocalTime t = time.toLocalTime();
+        return time.toLocalDate().atTime(t.getHour(), t.getMinute() / CELL_MINUTES * CELL_MINUTES);
+    }
+
+    private static LocalDateTime ceilToCell(LocalDateTime time) {
+        LocalDateTime floor = floorToCell(time);
+        return floor.equals(time) ? floor : floor.plusMinutes(CELL_MINUTES);
+    }
+
+    @FunctionalInterface
+    private interface DayRangeVisitor {
+        boolean visit(LocalDate day, int fromCell, int toCell);
+    }
+}
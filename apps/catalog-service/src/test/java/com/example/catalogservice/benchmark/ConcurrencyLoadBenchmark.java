@@ -0,0 +1,115 @@
+package com.example.catalogservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test for comparing the platform-thread and virtual-thread modes of a running
+ * service. For each concurrency level it keeps that many requests in flight for a fixed time, then
+ * prints throughput, latency percentiles, errors and the target's heap and live thread count (read
+ * from /actuator/metrics).
+ *
+ * Not run by surefire; start it against a deployed service with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath com.example.catalogservice.benchmark.ConcurrencyLoadBenchmark
+ * http://localhost:8081/api/catalog/services 1000,2500,5000,10000 30"}
+ * and run it once per mode. The client host needs a file-descriptor limit above the highest level.
+ */
+public class ConcurrencyLoadBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        URI target = URI.create(args.length > 0 ? args[0] : "http://localhost:8081/api/catalog/services");
+        String[] levels = (args.length > 1 ? args[1] : "1000,2500,5000,10000").split(",");
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        URI metrics = target.resolve("/actuator/metrics/");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("%-12s %10s %10s %10s %8s %10s %8s%n",
+                "concurrency", "req/s", "p50 ms", "p99 ms", "errors", "heap MB", "threads");
+        for (String level : levels) {
+            Result result = run(client, target, Integer.parseInt(level.trim()), duration);
+            System.out.printf("%-12s %10.0f %10.1f %10.1f %8d %10.0f %8.0f%n",
+                    level.trim(), result.throughput(), result.percentile(0.50), result.percentile(0.99), result.errors(),
+                    metric(client, metrics, "jvm.memory.used?tag=area:heap") / (1024 * 1024),
+                    metric(client, metrics, "jvm.threads.live"));
+        }
+    }
+
+    private static Result run(HttpClient client, URI target, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        // Each slot sends its next request as soon as the previous one completes
+        for (int i = 0; i < concurrency; i++) {
+            sendLoop(client, request, deadline, latencies, errors, done);
+        }
+        done.await();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(sorted, errors.get(), duration);
+    }
+
+    private static void sendLoop(HttpClient client, HttpRequest request, long deadline,
+                                 List<Long> latencies, AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            if (failure != null || response.statusCode() >= 400) {
+                errors.incrementAndGet();
+            } else {
+                latencies.add(System.nanoTime() - start);
+            }
+            sendLoop(client, request, deadline, latencies, errors, done);
+        });
+    }
+
+    private static double metric(HttpClient client, URI metrics, String name) {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(metrics.resolve(name)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode measurements = MAPPER.readTree(response.body()).path("measurements");
+            return measurements.isEmpty() ? Double.NaN : measurements.get(0).path("value").asDouble();
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private record Result(List<Long> sortedLatencies, long errors, Duration duration) {
+
+        double throughput() {
+            return sortedLatencies.size() / (double) duration.toSeconds();
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.isEmpty()) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.size()) - 1;
+            return sortedLatencies.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.catalogservice.controller;
 
 import com.example.catalogservice.dto.BookingRequestDto;
+import com.example.catalogservice.dto.CatalogSnapshot;
 import com.example.catalogservice.dto.ServiceDetailDto;
 import com.example.catalogservice.producer.BookingProducer;
+import com.example.catalogservice.service.BookingIdempotencyStore;
+import com.example.catalogservice.service.BookingRateLimiter;
 import com.example.catalogservice.service.CatalogDataService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -14,18 +17,32 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +56,12 @@ class CatalogControllerTest {
     @Mock
     private CatalogDataService catalogDataService;
 
+    @Mock
+    private BookingRateLimiter bookingRateLimiter;
+
+    @Mock
+    private BookingIdempotencyStore idempotencyStore;
+
     @InjectMocks
     private CatalogController catalogController;
 
@@ -56,14 +79,60 @@ class CatalogControllerTest {
         // Arrange
         List<ServiceDetailDto> services = new ArrayList<>();
         services.add(new ServiceDetailDto("GYM", "Gym", "Desc", "AMENITY", new ArrayList<>()));
-        when(catalogDataService.getAllServices()).thenReturn(services);
+        byte[] body = objectMapper.writeValueAsBytes(services);
+        when(catalogDataService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(body, "\"abc\""));
 
         // Act & Assert
         mockMvc.perform(get("/api/catalog/services"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
                 .andExpect(jsonPath("$[0].id").value("GYM"));
     }
 
+    @Test
+    void getServices_NotModified() throws Exception {
+        // Arrange
+        when(catalogDataService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot("[]".getBytes(), "\"abc\""));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/catalog/services").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getServices_FilteredByType() throws Exception {
+        // Arrange
+        when(catalogDataService.findServices("REPAIR", null, null)).thenReturn(List.of(
+                new ServiceDetailDto("PLUMBING", "Plumbing", "Desc", "REPAIR", new ArrayList<>())));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/catalog/services").param("type", "REPAIR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("PLUMBING"));
+    }
+
+    @Test
+    void getServices_InvalidFilter() throws Exception {
+        // Arrange
+        when(catalogDataService.findServices("SPA", null, null)).thenThrow(new IllegalArgumentException("Unknown service type: SPA"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/catalog/services").param("type", "SPA"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown service type: SPA"));
+    }
+
+    @Test
+    void getService_NotFound() throws Exception {
+        // Arrange
+        when(catalogDataService.findService("SPA", null, null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/catalog/services/SPA"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void requestBooking_Success() throws Exception {
         // Arrange
@@ -71,14 +140,175 @@ class CatalogControllerTest {
                 1L, "GYM", "AMENITY",
                 LocalDateTime.now(), LocalDateTime.now().plusHours(1)
         );
+        when(catalogDataService.isSlotAvailable(eq("GYM"), any(), any())).thenReturn(true);
+        when(bookingProducer.sendBookingRequest(any(BookingRequestDto.class), anyString(), isNull(), any()))
+                .thenReturn(CompletableFuture.completedFuture("request-1"));
 
         // Act & Assert
-        mockMvc.perform(post("/api/catalog/bookings")
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isAccepted())
-                .andExpect(jsonPath("$.status").value("PENDING"));
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.requestId").value("request-1"));
+
+        verify(bookingProducer).sendBookingRequest(any(BookingRequestDto.class), anyString(), isNull(), any());
+    }
+
+    @Test
+    void requestBooking_SlotTaken() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(catalogDataService.isSlotAvailable("GYM", start, start.plusHours(1))).thenReturn(false);
+        when(catalogDataService.findNextAvailableStart("GYM", start, Duration.ofHours(1)))
+                .thenReturn(Optional.of(start.plusHours(1)));
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.nextAvailableStart").value("2025-12-01T11:00"));
+
+        verify(bookingProducer, never()).sendBookingRequest(any(BookingRequestDto.class), any(), any(), any());
+    }
+
+    @Test
+    void requestBooking_MissingTimesIsBadRequest() throws Exception {
+        // Arrange
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", null, null);
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("startTime and endTime are required"));
+
+        verifyNoInteractions(catalogDataService, bookingRateLimiter, idempotencyStore, bookingProducer);
+    }
+
+    @Test
+    void requestBooking_RateLimited() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(bookingRateLimiter.tryAcquire(1L)).thenReturn(Optional.of(Duration.ofMillis(1500)));
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+
+        verify(bookingProducer, never()).sendBookingRequest(any(BookingRequestDto.class), any(), any(), any());
+    }
+
+    @Test
+    void requestBooking_IdempotentReplayReturnsOriginalRequestId() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(idempotencyStore.putIfAbsent(eq(1L), eq("key-1"), anyString())).thenReturn(Optional.of("request-1"));
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.requestId").value("request-1"));
+
+        // A retry of an accepted request costs no rate-limit tokens
+        verifyNoInteractions(bookingRateLimiter);
+        verify(bookingProducer, never()).sendBookingRequest(any(BookingRequestDto.class), any(), any(), any());
+    }
+
+    @Test
+    void requestBooking_RateLimitedNewKeyIsReleased() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(idempotencyStore.putIfAbsent(eq(1L), eq("key-1"), anyString())).thenReturn(Optional.empty());
+        when(bookingRateLimiter.tryAcquire(1L)).thenReturn(Optional.of(Duration.ofSeconds(1)));
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isTooManyRequests());
+
+        verify(idempotencyStore).release(eq(1L), eq("key-1"), anyString());
+        verify(bookingProducer, never()).sendBookingRequest(any(BookingRequestDto.class), any(), any(), any());
+    }
+
+    @Test
+    void requestBooking_FailedSendReleasesIdempotencyKey() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(catalogDataService.isSlotAvailable(eq("GYM"), any(), any())).thenReturn(true);
+        when(bookingProducer.sendBookingRequest(any(BookingRequestDto.class), anyString(), eq("key-1"), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(3).run();
+                    return CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+                });
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        result.getAsyncResult(1000);
+
+        // Assert
+        verify(idempotencyStore).release(eq(1L), eq("key-1"), anyString());
+    }
+
+    @Test
+    void requestBooking_TimedOutSendKeepsIdempotencyKey() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 12, 1, 10, 0);
+        BookingRequestDto request = new BookingRequestDto(1L, "GYM", "AMENITY", start, start.plusHours(1));
+        when(catalogDataService.isSlotAvailable(eq("GYM"), any(), any())).thenReturn(true);
+        // The ack timeout fired but the send itself has not failed: the record may still be published
+        when(bookingProducer.sendBookingRequest(any(BookingRequestDto.class), anyString(), eq("key-1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/catalog/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        result.getAsyncResult(1000);
 
-        verify(bookingProducer).sendBookingRequest(any(BookingRequestDto.class));
+        // Assert
+        verify(idempotencyStore, never()).release(any(), any(), any());
     }
 }
@@ -0,0 +1,124 @@
+package com.example.catalogservice.producer;
+
+import com.example.catalogservice.dto.BookingRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, BookingRequestDto> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BookingProducer bookingProducer;
+
+    private final BookingRequestDto request = new BookingRequestDto(
+            1L, "GYM", "AMENITY",
+            LocalDateTime.of(2025, 12, 1, 10, 0),
+            LocalDateTime.of(2025, 12, 1, 11, 0)
+    );
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingProducer = new BookingProducer(kafkaTemplate, meterRegistry, Duration.ofMillis(200));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendBookingRequest_CompletesOnAck() throws Exception {
+        // Arrange
+        ArgumentCaptor<ProducerRecord<String, BookingRequestDto>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("booking-requests", 0), 0, 0, 0, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, metadata)));
+
+        // Act
+        String requestId = bookingProducer.sendBookingRequest(request).get();
+
+        // Assert
+        verify(kafkaTemplate).send(captor.capture());
+        assertEquals("GYM:2025-12-01", captor.getValue().key());
+        byte[] header = captor.getValue().headers().lastHeader(BookingProducer.REQUEST_ID_HEADER).value();
+        assertEquals(requestId, new String(header, StandardCharsets.UTF_8));
+        assertEquals(1, meterRegistry.get("booking.requests.send").tag("outcome", "acked").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendBookingRequest_CarriesIdempotencyKey() throws Exception {
+        // Arrange
+        ArgumentCaptor<ProducerRecord<String, BookingRequestDto>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("booking-requests", 0), 0, 0, 0, 0, 0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, metadata)));
+
+        // Act
+        String requestId = bookingProducer.sendBookingRequest(request, "request-1", "key-1", () -> { }).get();
+
+        // Assert
+        verify(kafkaTemplate).send(captor.capture());
+        assertEquals("request-1", requestId);
+        byte[] header = captor.getValue().headers().lastHeader(BookingProducer.IDEMPOTENCY_KEY_HEADER).value();
+        assertEquals("key-1", new String(header, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendBookingRequest_TimesOutWithoutAck() {
+        // Arrange
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        // Act
+        CompletableFuture<String> result = bookingProducer.sendBookingRequest(request);
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendBookingRequest_ReportsOnlyTheSendFailingNotTheTimeout() {
+        // Arrange
+        CompletableFuture<SendResult<String, BookingRequestDto>> send = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(send);
+        AtomicInteger sendFailures = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> result = bookingProducer.sendBookingRequest(request, "request-1", "key-1",
+                sendFailures::incrementAndGet);
+
+        // Assert
+        assertThrows(ExecutionException.class, result::get);
+        assertFalse(send.isDone());
+        assertEquals(0, sendFailures.get());
+        send.completeExceptionally(new IllegalStateException("delivery timed out"));
+        assertEquals(1, sendFailures.get());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.catalogservice.serializer;
+
+import com.example.catalogservice.dto.BookingRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs binary-v1 encoding of a booking request. Not run by surefire; start it with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath com.example.catalogservice.serializer.BookingRequestSerializerBenchmark"}.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingRequestSerializerBenchmark {
+
+    private static final BookingRequestDto REQUEST = new BookingRequestDto(
+            12345L, "TENNIS", "AMENITY",
+            LocalDateTime.of(2025, 12, 1, 10, 0),
+            LocalDateTime.of(2025, 12, 1, 11, 0)
+    );
+
+    private BookingRequestSerializer jsonSerializer;
+    private ObjectMapper objectMapper;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new BookingRequestSerializer();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        json = jsonSerializer.serialize("booking-requests", REQUEST);
+        binary = BookingWireFormat.encode(REQUEST);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize("booking-requests", REQUEST);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BookingWireFormat.encode(REQUEST);
+    }
+
+    @Benchmark
+    public BookingRequestDto decodeJson() throws IOException {
+        return objectMapper.readValue(json, BookingRequestDto.class);
+    }
+
+    @Benchmark
+    public BookingRequestDto decodeBinary() {
+        return BookingWireFormat.decode(binary);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BookingRequestSerializer serializer = new BookingRequestSerializer();
+        System.out.printf("Record size: json=%d bytes, binary-v1=%d bytes%n",
+                serializer.serialize("booking-requests", REQUEST).length,
+                BookingWireFormat.encode(REQUEST).length);
+        new Runner(new OptionsBuilder()
+                .include(BookingRequestSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
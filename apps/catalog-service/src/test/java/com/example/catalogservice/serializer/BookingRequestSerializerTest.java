@@ -1,14 +1,22 @@
 package com.example.catalogservice.serializer;
 
 import com.example.catalogservice.dto.BookingRequestDto;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class BookingRequestSerializerTest {
 
+    private static final BookingRequestDto REQUEST = new BookingRequestDto(
+            1L, "GYM", "AMENITY",
+            LocalDateTime.of(2025, 12, 1, 10, 0),
+            LocalDateTime.of(2025, 12, 1, 11, 0)
+    );
+
     private final BookingRequestSerializer serializer = new BookingRequestSerializer();
 
     @Test
@@ -31,6 +39,43 @@ class BookingRequestSerializerTest {
         assertTrue(json.contains("\"serviceId\":\"GYM\""));
     }
 
+    @Test
+    void serialize_JsonByDefault_NoFormatHeader() {
+        // Arrange
+        RecordHeaders headers = new RecordHeaders();
+
+        // Act
+        byte[] result = serializer.serialize("topic", headers, REQUEST);
+
+        // Assert
+        assertNull(headers.lastHeader(BookingWireFormat.HEADER));
+        assertTrue(new String(result).contains("\"serviceId\":\"GYM\""));
+    }
+
+    @Test
+    void serialize_BinaryWhenConfigured() {
+        // Arrange
+        serializer.configure(Map.of(BookingWireFormat.FORMAT_CONFIG, "binary"), false);
+        RecordHeaders headers = new RecordHeaders();
+
+        // Act
+        byte[] result = serializer.serialize("topic", headers, REQUEST);
+
+        // Assert
+        assertEquals(BookingWireFormat.BINARY_V1, new String(headers.lastHeader(BookingWireFormat.HEADER).value()));
+        assertEquals(REQUEST, BookingWireFormat.decode(result));
+        assertTrue(result.length * 3 < serializer.serialize("topic", REQUEST).length);
+    }
+
+    @Test
+    void binary_RoundTripsNullFields() {
+        // Arrange
+        BookingRequestDto partial = new BookingRequestDto(null, "GYM", null, LocalDateTime.of(1969, 7, 20, 20, 17), null);
+
+        // Act & Assert
+        assertEquals(partial, BookingWireFormat.decode(BookingWireFormat.encode(partial)));
+    }
+
     @Test
     void serialize_NullData() {
         // Act
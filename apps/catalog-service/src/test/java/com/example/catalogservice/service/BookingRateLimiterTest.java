@@ -0,0 +1,86 @@
+package com.example.catalogservice.service;
+
+import com.example.catalogservice.config.BookingRateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private BookingRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new BookingRateLimiter(redisTemplate, properties(true));
+    }
+
+    private static BookingRateLimitProperties properties(boolean enabled) {
+        return new BookingRateLimitProperties(enabled,
+                new BookingRateLimitProperties.User(5, Duration.ofSeconds(2)),
+                new BookingRateLimitProperties.Global(200, Duration.ofMillis(10)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_AdmittedWhenScriptReturnsZero() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of("ratelimit:bookings:user:1", "ratelimit:bookings:global")),
+                eq("5"), eq("2000"), eq("200"), eq("10")))
+                .thenReturn(0L);
+
+        // Act & Assert
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_RejectedWithWaitTime() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(1500L);
+
+        // Act & Assert
+        assertEquals(Optional.of(Duration.ofMillis(1500)), rateLimiter.tryAcquire(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_FailsOpenWhenRedisIsDown() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act & Assert
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(1L));
+    }
+
+    @Test
+    void tryAcquire_DisabledSkipsRedis() {
+        // Arrange
+        rateLimiter = new BookingRateLimiter(redisTemplate, properties(false));
+
+        // Act & Assert
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(1L));
+        verifyNoInteractions(redisTemplate);
+    }
+}
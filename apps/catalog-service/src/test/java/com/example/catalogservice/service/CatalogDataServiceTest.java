@@ -1,23 +1,34 @@
 package com.example.catalogservice.service;
 
+import com.example.catalogservice.config.CatalogCacheProperties;
+import com.example.catalogservice.dto.CatalogSnapshot;
 import com.example.catalogservice.dto.ServiceDetailDto;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.catalogservice.model.TimeSlot;
+import com.example.catalogservice.repository.CatalogIndexRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -33,11 +44,28 @@ class CatalogDataServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
-    @InjectMocks
+    @Mock
+    private CatalogIndexRepository catalogIndexRepository;
+
     private CatalogDataService catalogDataService;
 
+    @BeforeEach
+    void setUp() {
+        catalogDataService = newService(1.0);
+    }
+
+    private CatalogDataService newService(double earlyRefreshBeta) {
+        CatalogCacheProperties properties = new CatalogCacheProperties(
+                Duration.ofMinutes(10),
+                new CatalogCacheProperties.Near(16, Duration.ofMinutes(1)),
+                new CatalogCacheProperties.Refresh(Duration.ofSeconds(5), Duration.ofMillis(200),
+                        Duration.ofMillis(10), earlyRefreshBeta, Duration.ofSeconds(1)));
+        return new CatalogDataService(redisTemplate, objectMapper, catalogIndexRepository,
+                new SlotAvailabilityIndex(), Runnable::run, properties);
+    }
+
     @Test
-    void getAllServices_CacheHit() throws JsonProcessingException {
+    void getAllServices_CacheHit() throws IOException {
         // Arrange
         String cachedData = "[{\"id\":\"GYM\"}]";
         List<ServiceDetailDto> expectedServices = Collections.singletonList(
@@ -46,7 +74,7 @@ class CatalogDataServiceTest {
 
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get("catalog:services")).thenReturn(cachedData);
-        when(objectMapper.readValue(eq(cachedData), any(TypeReference.class))).thenReturn(expectedServices);
+        when(objectMapper.readValue(eq(cachedData.getBytes()), any(TypeReference.class))).thenReturn(expectedServices);
 
         // Act
         List<ServiceDetailDto> result = catalogDataService.getAllServices();
@@ -59,11 +87,12 @@ class CatalogDataServiceTest {
     }
 
     @Test
-    void getAllServices_CacheMiss() throws JsonProcessingException {
+    void getAllServices_CacheMiss() throws IOException {
         // Arrange
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get("catalog:services")).thenReturn(null);
-        when(objectMapper.writeValueAsString(any())).thenReturn("json");
+        when(valueOperations.setIfAbsent(eq("catalog:services:lock"), anyString(), anyLong(), any())).thenReturn(true);
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("json".getBytes());
 
         // Act
         List<ServiceDetailDto> result = catalogDataService.getAllServices();
@@ -72,5 +101,146 @@ class CatalogDataServiceTest {
         assertFalse(result.isEmpty());
         assertEquals("GYM", result.get(0).id()); // Mock data first item
         verify(valueOperations, times(1)).set(eq("catalog:services"), anyString(), anyLong(), any());
+        verify(catalogIndexRepository).saveAll(anyList(), eq(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void getAllServices_NearCacheHit() throws IOException {
+        // Arrange
+        String cachedData = "[{\"id\":\"GYM\"}]";
+        List<ServiceDetailDto> expectedServices = Collections.singletonList(
+                new ServiceDetailDto("GYM", "Gym", "Desc", "AMENITY", new ArrayList<>())
+        );
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(cachedData);
+        when(objectMapper.readValue(eq(cachedData.getBytes()), any(TypeReference.class))).thenReturn(expectedServices);
+
+        // Act
+        catalogDataService.getAllServices();
+        List<ServiceDetailDto> result = catalogDataService.getAllServices();
+
+        // Assert
+        assertEquals("GYM", result.get(0).id());
+        verify(valueOperations, times(1)).get("catalog:services");
+        verify(objectMapper, times(1)).readValue(eq(cachedData.getBytes()), any(TypeReference.class));
+    }
+
+    @Test
+    void onInvalidation_EvictsNearCache() throws IOException {
+        // Arrange
+        String cachedData = "[{\"id\":\"GYM\"}]";
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(cachedData);
+        when(objectMapper.readValue(eq(cachedData.getBytes()), any(TypeReference.class))).thenReturn(new ArrayList<>());
+
+        // Act
+        catalogDataService.getAllServices();
+        catalogDataService.onInvalidation("another-pod");
+        catalogDataService.getAllServices();
+
+        // Assert
+        verify(valueOperations, times(2)).get("catalog:services");
+    }
+
+    @Test
+    void getAllServices_LockHeldElsewhere_WaitsForRebuild() throws IOException {
+        // Arrange
+        String cachedData = "[{\"id\":\"GYM\"}]";
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(null, cachedData);
+        when(valueOperations.setIfAbsent(eq("catalog:services:lock"), anyString(), anyLong(), any())).thenReturn(false);
+        when(objectMapper.readValue(eq(cachedData.getBytes()), any(TypeReference.class))).thenReturn(Collections.singletonList(
+                new ServiceDetailDto("GYM", "Gym", "Desc", "AMENITY", new ArrayList<>())));
+
+        // Act
+        List<ServiceDetailDto> result = catalogDataService.getAllServices();
+
+        // Assert
+        assertEquals("GYM", result.get(0).id());
+        verify(valueOperations, never()).set(eq("catalog:services"), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void getAllServices_NearExpiry_RefreshesEarly() throws IOException {
+        // Arrange
+        catalogDataService = newService(1_000_000);
+        String cachedData = "[{\"id\":\"GYM\"}]";
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(cachedData);
+        when(redisTemplate.getExpire("catalog:services", TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(valueOperations.setIfAbsent(eq("catalog:services:lock"), anyString(), anyLong(), any())).thenReturn(true);
+        when(objectMapper.readValue(eq(cachedData.getBytes()), any(TypeReference.class))).thenReturn(new ArrayList<>());
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("json".getBytes());
+
+        // Act
+        catalogDataService.getAllServices();
+
+        // Assert
+        verify(valueOperations, times(1)).set(eq("catalog:services"), eq("json"), anyLong(), any());
+    }
+
+    @Test
+    void getCatalogSnapshot_ServesRedisBytesWithoutDecoding() {
+        // Arrange
+        String cachedData = "[{\"id\":\"GYM\"}]";
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(cachedData);
+
+        // Act
+        CatalogSnapshot first = catalogDataService.getCatalogSnapshot();
+        CatalogSnapshot second = catalogDataService.getCatalogSnapshot();
+
+        // Assert
+        assertArrayEquals(cachedData.getBytes(), first.body());
+        assertEquals(first.etag(), second.etag());
+        assertTrue(first.etag().startsWith("\""));
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    void findServices_ReadsOnlyMatchingServicesAndDays() throws IOException {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 12, 2, 0, 0);
+        TimeSlot inWindow = new TimeSlot("GYM-1", from.withHour(6), from.withHour(7), true);
+        TimeSlot outOfWindow = new TimeSlot("GYM-2", to.withHour(6), to.withHour(7), true);
+        when(catalogIndexRepository.findServiceTypes()).thenReturn(Map.of("GYM", "AMENITY", "PLUMBING", "REPAIR"));
+        when(catalogIndexRepository.findServices(List.of("GYM"), List.of(from.toLocalDate(), to.toLocalDate())))
+                .thenReturn(List.of(new ServiceDetailDto("GYM", "Gym", "Desc", "AMENITY", List.of(inWindow, outOfWindow))));
+
+        // Act
+        List<ServiceDetailDto> result = catalogDataService.findServices("AMENITY", from, to);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(List.of(inWindow), result.get(0).availableSlots());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void findServices_IndexMissing_FiltersFullCatalog() throws IOException {
+        // Arrange
+        when(catalogIndexRepository.findServiceTypes()).thenReturn(Map.of());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("catalog:services")).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("catalog:services:lock"), anyString(), anyLong(), any())).thenReturn(true);
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("json".getBytes());
+
+        // Act
+        List<ServiceDetailDto> result = catalogDataService.findServices("REPAIR", null, null);
+
+        // Assert
+        assertEquals(4, result.size());
+        assertTrue(result.stream().allMatch(service -> service.type().equals("REPAIR")));
+    }
+
+    @Test
+    void findServices_InvalidWindow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogDataService.findServices(null, LocalDateTime.now(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogDataService.findServices(null, LocalDateTime.now(), LocalDateTime.now().plusDays(60)));
     }
 }
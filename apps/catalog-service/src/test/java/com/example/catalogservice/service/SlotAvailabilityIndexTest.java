@@ -0,0 +1,61 @@
+package com.example.catalogservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotAvailabilityIndexTest {
+
+    private final SlotAvailabilityIndex index = new SlotAvailabilityIndex();
+
+    private final LocalDateTime tenAm = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    @Test
+    void isFree_NoBookings() {
+        // Act & Assert
+        assertTrue(index.isFree("GYM", tenAm, tenAm.plusHours(1)));
+        assertEquals(0, index.version());
+    }
+
+    @Test
+    void isFree_OverlappingBooking() {
+        // Arrange
+        index.markBooked("GYM", tenAm, tenAm.plusHours(1));
+
+        // Act & Assert
+        assertFalse(index.isFree("GYM", tenAm.plusMinutes(30), tenAm.plusMinutes(90)));
+        assertTrue(index.isFree("GYM", tenAm.plusHours(1), tenAm.plusHours(2)));
+        assertTrue(index.isFree("POOL", tenAm, tenAm.plusHours(1)));
+        assertEquals(1, index.version());
+    }
+
+    @Test
+    void nextFreeSlot_SkipsBookedRuns() {
+        // Arrange
+        index.markBooked("GYM", tenAm, tenAm.plusHours(1));
+        index.markBooked("GYM", tenAm.plusMinutes(90), tenAm.plusHours(2));
+
+        // Act
+        Optional<LocalDateTime> next = index.nextFreeSlot("GYM", tenAm, Duration.ofHours(1));
+
+        // Assert
+        assertEquals(Optional.of(tenAm.plusHours(2)), next);
+    }
+
+    @Test
+    void nextFreeSlot_CrossesMidnight() {
+        // Arrange
+        LocalDateTime lateEvening = tenAm.withHour(23);
+        index.markBooked("GYM", lateEvening, lateEvening.plusHours(2));
+
+        // Act
+        Optional<LocalDateTime> next = index.nextFreeSlot("GYM", lateEvening, Duration.ofMinutes(30));
+
+        // Assert
+        assertEquals(Optional.of(lateEvening.plusHours(2)), next);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.notificationservice.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverOptions;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,8 +30,20 @@ public class KafkaConsumerConfig {
     @Value("${kafka.consumer.group-id}")
     private String groupId;
 
-    @Value("${kafka.topics.booking-requests}")
-    private String bookingRequestsTopic;
+    // Outcomes from booking-service, so notifications follow what was actually booked
+    @Value("${kafka.topics.booking-events}")
+    private String bookingEventsTopic;
+
+    // Acknowledged offsets are committed once this many are pending, or on the interval
+    @Value("${kafka.consumer.commit-batch-size:100}")
+    private int commitBatchSize;
+
+    @Value("${kafka.consumer.commit-interval:5s}")
+    private Duration commitInterval;
+
+    // Upper bound on records fetched ahead of the lanes
+    @Value("${kafka.consumer.max-poll-records:100}")
+    private int maxPollRecords;
 
     /**
      * Reactive Kafka Receiver Options
@@ -37,27 +51,32 @@ public class KafkaConsumerConfig {
      * ReceiverOptions is used to configure the reactive Kafka consumer
      */
     @Bean
-    public ReceiverOptions<String, String> receiverOptions() {
+    public ReceiverOptions<String, byte[]> receiverOptions() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Raw bytes: the value is JSON or binary depending on the booking-format header
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        // Offsets are committed by the receiver, only for records BookingEventConsumer acknowledged
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         
-        return ReceiverOptions.<String, String>create(props)
-                .subscription(Collections.singleton(bookingRequestsTopic));
+        return ReceiverOptions.<String, byte[]>create(props)
+                .commitBatchSize(commitBatchSize)
+                .commitInterval(commitInterval)
+                .subscription(Collections.singleton(bookingEventsTopic));
     }
 
     /**
      * Kafka Receiver Bean
      * 
      * KafkaReceiver provides the reactive stream of messages
-     * @return KafkaReceiver<String, String>
+     * @return KafkaReceiver<String, byte[]>
      */
     @Bean
-    public KafkaReceiver<String, String> kafkaReceiver(ReceiverOptions<String, String> receiverOptions) {
+    public KafkaReceiver<String, byte[]> kafkaReceiver(ReceiverOptions<String, byte[]> receiverOptions) {
         return KafkaReceiver.create(receiverOptions);
     }
 }
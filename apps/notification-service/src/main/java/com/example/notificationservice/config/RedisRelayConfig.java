@@ -0,0 +1,21 @@
+package com.example.notificationservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+/**
+ * Redis Pub/Sub Configuration
+ * 
+ * One listener container (one Redis connection) carries all channel
+ * subscriptions of NotificationRelay
+ */
+@Configuration
+public class RedisRelayConfig {
+
+    @Bean
+    public ReactiveRedisMessageListenerContainer redisMessageListenerContainer(ReactiveRedisConnectionFactory connectionFactory) {
+        return new ReactiveRedisMessageListenerContainer(connectionFactory);
+    }
+}
@@ -7,11 +7,20 @@ import com.example.notificationservice.model.NotificationType;
 import com.example.notificationservice.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 /**
  * Reactive Kafka Consumer using Reactor Kafka
@@ -27,22 +36,39 @@ import reactor.kafka.receiver.ReceiverRecord;
  * Compare to blocking @KafkaListener:
  * - Traditional: @KafkaListener blocks thread per message
  * - Reactive: Handles messages on event loop, non-blocking
+ * 
+ * Ordering and flow control:
+ * - Partitions are spread over kafka.consumer.concurrency lanes with groupBy();
+ *   each lane handles one record at a time (concatMap), so a partition keeps its order
+ * - At most that many records are in flight; the receiver pauses fetching while
+ *   the lanes are busy, so a backlog replay does not flood the database
+ * - Offsets are acknowledged after processing and committed in batches
+ *   (see KafkaConsumerConfig), never ahead of the work: a record whose notification
+ *   fails is retried with backoff (kafka.consumer.retry-backoff, capped at 30s) and
+ *   holds its lane until it succeeds, so no later offset of its partition is acknowledged
+ *   past it. Only records that cannot be decoded are skipped
  */
 @Component
 public class BookingEventConsumer {
     
     private static final Logger log = LoggerFactory.getLogger(BookingEventConsumer.class);
     
-    private final KafkaReceiver<String, String> kafkaReceiver;
+    private final KafkaReceiver<String, byte[]> kafkaReceiver;
     private final NotificationService notificationService;
     private final ObjectMapper objectMapper;
+    private final int concurrency;
+    private final Duration retryBackoff;
     
-    public BookingEventConsumer(KafkaReceiver<String, String> kafkaReceiver,
+    public BookingEventConsumer(KafkaReceiver<String, byte[]> kafkaReceiver,
                                NotificationService notificationService,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               @Value("${kafka.consumer.concurrency:4}") int concurrency,
+                               @Value("${kafka.consumer.retry-backoff:1s}") Duration retryBackoff) {
         this.kafkaReceiver = kafkaReceiver;
         this.notificationService = notificationService;
         this.objectMapper = objectMapper;
+        this.concurrency = concurrency;
+        this.retryBackoff = retryBackoff;
     }
     
     /**
@@ -52,21 +78,9 @@ public class BookingEventConsumer {
      */
     @PostConstruct
     public void startConsuming() {
-        log.info("Starting reactive Kafka consumer for booking events");
+        log.info("Starting reactive Kafka consumer for booking events ({} lanes)", concurrency);
         
-        kafkaReceiver.receive()
-                // Log each received record
-                .doOnNext(record -> log.info("Received Kafka message: key={}, partition={}, offset={}", 
-                        record.key(), record.partition(), record.offset()))
-                
-                // Process each message reactively
-                .flatMap(this::processBookingEvent)
-                
-                // Error handling - continue on error (don't stop stream)
-                .doOnError(error -> log.error("Error processing Kafka message", error))
-                .onErrorContinue((throwable, obj) -> 
-                        log.error("Continuing after error: {}", throwable.getMessage()))
-                
+        process(kafkaReceiver.receive())
                 // Subscribe to activate the stream
                 .subscribe(
                         notification -> log.info("Successfully processed notification: {}", notification),
@@ -75,6 +89,22 @@ public class BookingEventConsumer {
                 );
     }
     
+    /**
+     * REACTIVE PATTERN: groupBy + concatMap for ordered, bounded parallelism
+     * 
+     * Lanes are keyed by partition number, so there are never more groups than
+     * flatMap() subscribes to (which would stall groupBy)
+     */
+    Flux<Notification> process(Flux<ReceiverRecord<String, byte[]>> records) {
+        return records
+                // Log each received record
+                .doOnNext(record -> log.info("Received Kafka message: key={}, partition={}, offset={}", 
+                        record.key(), record.partition(), record.offset()))
+                
+                .groupBy(record -> Math.floorMod(record.partition(), concurrency))
+                .flatMap(lane -> lane.concatMap(this::processBookingEvent), concurrency);
+    }
+    
     /**
      * Process a single booking event message
      * 
@@ -83,19 +113,26 @@ public class BookingEventConsumer {
      * - flatMap chains the database save operation
      * - Entire pipeline is non-blocking
      */
-    private reactor.core.publisher.Mono<Notification> processBookingEvent(ReceiverRecord<String, String> record) {
+    private Mono<Notification> processBookingEvent(ReceiverRecord<String, byte[]> record) {
         try {
-            // Deserialize JSON to BookingEventDto
-            String jsonValue = record.value();
-            BookingEventDto bookingEvent = objectMapper.readValue(jsonValue, BookingEventDto.class);
+            // Deserialize JSON or binary (per booking-format header) to BookingEventDto
+            BookingEventDto bookingEvent = decode(record);
             
             log.info("Processing booking event: {}", bookingEvent);
             
-            // Create notification from booking event
+            // Create notification from booking event; other event types are not for users
             Notification notification = createNotificationFromBooking(bookingEvent);
+            if (notification == null) {
+                record.receiverOffset().acknowledge();
+                return Mono.empty();
+            }
             
-            // Send notification (returns Mono<Notification>)
-            return notificationService.createAndSendNotification(notification)
+            // Send notification (returns Mono<Notification>); defer so each retry calls the service again
+            return Mono.defer(() -> notificationService.createAndSendNotification(notification))
+                    .doOnError(e -> log.error("Error processing booking event at partition {} offset {}, retrying",
+                            record.partition(), record.offset(), e))
+                    // Hold the lane rather than skip the record: a later acknowledgement would commit past it
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, retryBackoff).maxBackoff(Duration.ofSeconds(30)))
                     .doOnSuccess(n -> {
                         // Acknowledge Kafka message after successful processing
                         record.receiverOffset().acknowledge();
@@ -103,29 +140,50 @@ public class BookingEventConsumer {
                     });
             
         } catch (Exception e) {
+            // A record that cannot be decoded never will be: skip it
             log.error("Error parsing booking event", e);
-            return reactor.core.publisher.Mono.empty();
+            record.receiverOffset().acknowledge();
+            return Mono.empty();
         }
     }
     
+    private BookingEventDto decode(ReceiverRecord<String, byte[]> record) throws IOException {
+        Header format = record.headers().lastHeader(BookingWireFormat.HEADER);
+        if (format == null) {
+            return objectMapper.readValue(record.value(), BookingEventDto.class);
+        }
+        String name = new String(format.value(), StandardCharsets.UTF_8);
+        if (!BookingWireFormat.BINARY_V1.equals(name)) {
+            throw new IllegalArgumentException("Unsupported booking-format: " + name);
+        }
+        return BookingWireFormat.decode(record.value());
+    }
+
     /**
-     * Transform booking event to notification
+     * Transform booking event to notification, or null for events users are not told about
      */
     private Notification createNotificationFromBooking(BookingEventDto bookingEvent) {
-        String title = "Booking Confirmation";
-        String message = String.format(
-                "Your booking for %s has been confirmed for %s to %s",
-                bookingEvent.serviceId(),
-                bookingEvent.startTime(),
-                bookingEvent.endTime()
-        );
-        
-        return Notification.create(
-                bookingEvent.userId(),
-                title,
-                message,
-                NotificationType.BOOKING_CONFIRMED,
-                NotificationChannel.IN_APP
-        );
+        if (BookingEventDto.BOOKING_CONFIRMED.equals(bookingEvent.eventType())) {
+            String message = String.format(
+                    "Your booking for %s has been confirmed for %s to %s",
+                    bookingEvent.amenityId(),
+                    bookingEvent.startTime(),
+                    bookingEvent.endTime()
+            );
+            return Notification.create(bookingEvent.userId(), "Booking Confirmation", message,
+                    NotificationType.BOOKING_CONFIRMED, NotificationChannel.IN_APP);
+        }
+        if (BookingEventDto.BOOKING_REJECTED.equals(bookingEvent.eventType())) {
+            String message = String.format(
+                    "Your booking for %s from %s to %s could not be made: %s",
+                    bookingEvent.amenityId(),
+                    bookingEvent.startTime(),
+                    bookingEvent.endTime(),
+                    bookingEvent.reason()
+            );
+            return Notification.create(bookingEvent.userId(), "Booking Rejected", message,
+                    NotificationType.BOOKING_REJECTED, NotificationChannel.IN_APP);
+        }
+        return null;
     }
 }
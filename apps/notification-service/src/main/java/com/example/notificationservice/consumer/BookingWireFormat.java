@@ -0,0 +1,90 @@
+package com.example.notificationservice.consumer;
+
+import com.example.notificationservice.dto.BookingEventDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of booking messages, selected per record by the {@value #HEADER} header.
+ * Records without the header are JSON, so JSON and binary producers/consumers can coexist during rollout.
+ * Decode-only counterpart of booking-service's BookingWireFormat; must stay byte-compatible with it.
+ *
+ * Layout (v1): version byte, presence bitmask byte (bit i set if field i is non-null), then every
+ * non-null field in declaration order. Ids are zig-zag varints, strings are a varint length followed
+ * by UTF-8, timestamps are zig-zag varint epoch millis (UTC).
+ */
+public final class BookingWireFormat {
+
+    public static final String HEADER = "booking-format";
+    public static final String BINARY_V1 = "binary-v1";
+
+    static final byte VERSION_1 = 1;
+
+    private BookingWireFormat() {
+    }
+
+    public static BookingEventDto decode(byte[] data) {
+        Reader in = new Reader(data);
+        return new BookingEventDto(in.readString(), in.readLong(), in.readLong(), in.readString(),
+                in.readTime(), in.readTime(), in.readString());
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private final int presence;
+        private int pos;
+        private int field;
+
+        Reader(byte[] data) {
+            if (data.length < 2 || data[0] != VERSION_1) {
+                throw new IllegalArgumentException("Unsupported booking wire format version: "
+                        + (data.length == 0 ? "empty" : data[0]));
+            }
+            this.data = data;
+            this.presence = data[1] & 0xFF;
+            this.pos = 2;
+        }
+
+        Long readLong() {
+            if (!present()) {
+                return null;
+            }
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            if (!present()) {
+                return null;
+            }
+            int length = (int) readVarLong();
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        LocalDateTime readTime() {
+            Long millis = readLong();
+            return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+
+        private boolean present() {
+            return (presence & (1 << field++)) != 0;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in booking record");
+        }
+    }
+}
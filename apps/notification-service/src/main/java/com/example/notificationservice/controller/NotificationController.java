@@ -153,10 +153,17 @@ public class NotificationController {
      * Stream notifications with ServerSentEvent wrapper
      * 
      * Advanced SSE with event IDs and names for better client handling
+     * 
+     * On reconnect, EventSource sends the id of the last event it received as
+     * Last-Event-ID; the stream then starts with the notifications it missed
      */
+    @Operation(summary = "Stream notifications with event ids (SSE)",
+            description = "Resumes after the Last-Event-ID header when the client reconnects")
     @GetMapping(value = "/stream-sse/user/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<NotificationDto>> streamNotificationsWithSSE(@PathVariable Long userId) {
-        return streamService.getNotificationStream(userId)
+    public Flux<ServerSentEvent<NotificationDto>> streamNotificationsWithSSE(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return streamService.getNotificationStream(userId, lastEventId)
                 .map(notification -> ServerSentEvent.<NotificationDto>builder()
                         .id(String.valueOf(notification.id()))
                         .event("notification")
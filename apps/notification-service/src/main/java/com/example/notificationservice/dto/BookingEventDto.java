@@ -3,14 +3,18 @@ package com.example.notificationservice.dto;
 import java.time.LocalDateTime;
 
 /**
- * DTO for booking events from Kafka
- * Maps to the BookingRequest structure from catalog-service
+ * Booking outcome published by booking-service on the booking-events topic
  */
 public record BookingEventDto(
+    String eventType,
+    Long bookingId,
     Long userId,
-    String serviceId,
-    String serviceType,
+    String amenityId,
     LocalDateTime startTime,
-    LocalDateTime endTime
+    LocalDateTime endTime,
+    // Set on BookingRejected only
+    String reason
 ) {
+    public static final String BOOKING_CONFIRMED = "BookingConfirmed";
+    public static final String BOOKING_REJECTED = "BookingRejected";
 }
@@ -5,6 +5,7 @@ package com.example.notificationservice.model;
  */
 public enum NotificationType {
     BOOKING_CONFIRMED,
+    BOOKING_REJECTED,
     BOOKING_CANCELLED,
     PAYMENT_SUCCESS,
     PAYMENT_FAILED,
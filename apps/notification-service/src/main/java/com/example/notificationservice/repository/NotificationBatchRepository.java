@@ -0,0 +1,88 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationStatus;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes to the notifications table, for NotificationWriteBuffer
+ *
+ * LEARNING NOTE: ReactiveCrudRepository.saveAll() still sends one INSERT per
+ * entity. Here a whole batch is a single statement on a single connection:
+ * - one multi-row INSERT ... VALUES (...), (...) returning the generated ids
+ * - one UPDATE ... WHERE id IN (...) per target status
+ */
+@Repository
+public class NotificationBatchRepository {
+
+    private static final String INSERT = "INSERT INTO notifications "
+            + "(user_id, title, message, notification_type, channel, status, is_read, created_at, read_at, metadata) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    public NotificationBatchRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Insert all notifications in one statement
+     *
+     * @return Flux<Long> - generated ids, in the order of the notifications
+     */
+    public Flux<Long> insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> rows = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification n = notifications.get(i);
+            rows.add(String.format("(:userId%1$d, :title%1$d, :message%1$d, :type%1$d, :channel%1$d, :status%1$d, "
+                    + ":isRead%1$d, :createdAt%1$d, :readAt%1$d, :metadata%1$d)", i));
+            params.put("userId" + i, n.userId());
+            params.put("title" + i, n.title());
+            params.put("message" + i, n.message());
+            params.put("type" + i, n.notificationType().name());
+            params.put("channel" + i, n.channel().name());
+            params.put("status" + i, n.status().name());
+            params.put("isRead" + i, n.isRead() != null && n.isRead());
+            params.put("createdAt" + i, n.createdAt());
+            // Nullable columns carry their type, so a null binds as a typed NULL
+            params.put("readAt" + i, Parameters.in(R2dbcType.TIMESTAMP, n.readAt()));
+            params.put("metadata" + i, Parameters.in(R2dbcType.VARCHAR, n.metadata()));
+        }
+
+        return databaseClient.sql(INSERT + String.join(", ", rows))
+                .bindValues(params)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    /**
+     * Move all given notifications to the same status
+     *
+     * @return Mono<Long> - number of rows updated
+     */
+    public Mono<Long> updateStatus(NotificationStatus status, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql("UPDATE notifications SET status = :status WHERE id IN (:ids)")
+                .bind("status", status.name())
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -47,4 +47,11 @@ public interface NotificationRepository extends ReactiveCrudRepository<Notificat
      * Find notifications by user and read status
      */
     Flux<Notification> findByUserIdAndIsRead(Long userId, Boolean isRead);
+    
+    /**
+     * Notifications of a user created after a given id, oldest first
+     * 
+     * Used to resume an SSE stream when the replay buffer no longer covers the gap
+     */
+    Flux<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id);
 }
@@ -6,6 +6,7 @@ import com.example.notificationservice.model.NotificationChannel;
 import com.example.notificationservice.model.NotificationStatus;
 import com.example.notificationservice.model.NotificationType;
 import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.stream.NotificationRelay;
 import com.example.notificationservice.stream.NotificationStreamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,29 +31,38 @@ public class NotificationService {
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
     
     private final NotificationRepository notificationRepository;
+    private final NotificationWriteBuffer writeBuffer;
     private final EmailNotificationService emailService;
     private final PushNotificationService pushService;
     private final NotificationStreamService streamService;
+    private final NotificationRelay notificationRelay;
     
     public NotificationService(NotificationRepository notificationRepository,
+                              NotificationWriteBuffer writeBuffer,
                               EmailNotificationService emailService,
                               PushNotificationService pushService,
-                              NotificationStreamService streamService) {
+                              NotificationStreamService streamService,
+                              NotificationRelay notificationRelay) {
         this.notificationRepository = notificationRepository;
+        this.writeBuffer = writeBuffer;
         this.emailService = emailService;
         this.pushService = pushService;
         this.streamService = streamService;
+        this.notificationRelay = notificationRelay;
     }
     
     /**
      * Create and send notification
      * 
      * REACTIVE PATTERN: flatMap for async composition
+     * 
+     * Both writes (PENDING insert, SENT transition) go through NotificationWriteBuffer,
+     * so a burst of events costs a few multi-row statements instead of two per notification
      */
     public Mono<Notification> createAndSendNotification(Notification notification) {
         log.info("Creating notification for user: {}", notification.userId());
         
-        return notificationRepository.save(notification)
+        return writeBuffer.insert(notification)
                 .flatMap(savedNotification -> {
                     // Send via channels in parallel using Mono.zip
                     Mono<Void> emailSent = sendViaEmail(savedNotification);
@@ -61,15 +71,16 @@ public class NotificationService {
                     return Mono.zip(emailSent, pushSent)
                             .then(Mono.just(savedNotification));
                 })
-                .map(sent -> sent.withStatus(NotificationStatus.SENT))
-                .flatMap(notificationRepository::save)
+                .flatMap(sent -> writeBuffer.updateStatus(sent.id(), NotificationStatus.SENT)
+                        .thenReturn(sent.withStatus(NotificationStatus.SENT)))
                 .doOnSuccess(n -> {
                     log.info("Notification sent successfully: {}", n.id());
-                    // Emit to SSE stream for real-time updates
+                    // Emit to SSE stream for real-time updates, here and on the other instances
                     streamService.emitNotification(n);
+                    notificationRelay.publish(n);
                 })
-                .doOnError(e -> log.error("Failed to send notification", e))
-                .onErrorResume(e -> Mono.just(notification)); // Fallback on error
+                // No fallback: the Kafka consumer retries the record instead of acknowledging it
+                .doOnError(e -> log.error("Failed to send notification", e));
     }
     
     /**
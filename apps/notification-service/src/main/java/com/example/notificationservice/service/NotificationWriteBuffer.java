@@ -0,0 +1,153 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationStatus;
+import com.example.notificationservice.repository.NotificationBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind batching stage in front of NotificationBatchRepository
+ *
+ * LEARNING NOTES:
+ * - Callers still get one Mono per notification, completed once its batch is written
+ * - Writes are collected with bufferTimeout(): a batch goes out when it is full
+ *   or when the window has passed since its first element, whichever comes first
+ * - concatMap() keeps one statement in flight per queue; a slow database fills
+ *   the buffers instead of the connection pool
+ * - A failed statement fails every caller in that batch, and the stage keeps running
+ */
+@Service
+public class NotificationWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationWriteBuffer.class);
+
+    // Emitters may race (one per Kafka record or request); retry instead of failing on contention
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONTENTION = Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1));
+
+    private final NotificationBatchRepository batchRepository;
+    private final int batchSize;
+    private final Duration window;
+
+    private final Sinks.Many<PendingInsert> inserts = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.Many<PendingStatus> statusChanges = Sinks.many().unicast().onBackpressureBuffer();
+
+    public NotificationWriteBuffer(NotificationBatchRepository batchRepository,
+                                   @Value("${notification.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${notification.write-behind.window:20ms}") Duration window) {
+        this.batchRepository = batchRepository;
+        this.batchSize = batchSize;
+        this.window = window;
+    }
+
+    @PostConstruct
+    public void start() {
+        inserts.asFlux()
+                .bufferTimeout(batchSize, window, true)
+                .concatMap(this::writeInserts)
+                .subscribe(null, e -> log.error("Notification insert stage stopped", e));
+        statusChanges.asFlux()
+                .bufferTimeout(batchSize, window, true)
+                .concatMap(this::writeStatusChanges)
+                .subscribe(null, e -> log.error("Notification status stage stopped", e));
+        log.info("Notification write-behind started (batch size {}, window {})", batchSize, window);
+    }
+
+    /**
+     * Flush what is buffered, then stop
+     */
+    @PreDestroy
+    public void stop() {
+        inserts.tryEmitComplete();
+        statusChanges.tryEmitComplete();
+    }
+
+    /**
+     * Queue a notification for the next multi-row INSERT
+     *
+     * @return Mono<Notification> - the notification with its generated id
+     */
+    public Mono<Notification> insert(Notification notification) {
+        return Mono.defer(() -> {
+            Sinks.One<Notification> saved = Sinks.one();
+            inserts.emitNext(new PendingInsert(notification, saved), RETRY_ON_CONTENTION);
+            return saved.asMono();
+        });
+    }
+
+    /**
+     * Queue a status change for the next grouped UPDATE
+     */
+    public Mono<Void> updateStatus(Long id, NotificationStatus status) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> written = Sinks.empty();
+            statusChanges.emitNext(new PendingStatus(id, status, written), RETRY_ON_CONTENTION);
+            return written.asMono();
+        });
+    }
+
+    private Mono<Void> writeInserts(List<PendingInsert> batch) {
+        List<Notification> notifications = batch.stream().map(PendingInsert::notification).toList();
+        // defer(): a statement that fails while being built fails this batch, not the stage
+        return Flux.defer(() -> batchRepository.insertAll(notifications))
+                .collectList()
+                .doOnNext(ids -> {
+                    if (ids.size() != batch.size()) {
+                        throw new IllegalStateException("Expected " + batch.size() + " generated ids, got " + ids.size());
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).saved().tryEmitValue(notifications.get(i).withId(ids.get(i)));
+                    }
+                    log.debug("Inserted {} notifications in one statement", batch.size());
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to insert batch of {} notifications", batch.size(), e);
+                    batch.forEach(pending -> pending.saved().tryEmitError(e));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> writeStatusChanges(List<PendingStatus> batch) {
+        // The last change queued for an id wins, then one UPDATE ... WHERE id IN (...) per target status
+        Map<Long, NotificationStatus> latest = new HashMap<>();
+        batch.forEach(pending -> latest.put(pending.id(), pending.status()));
+        Map<NotificationStatus, List<PendingStatus>> byStatus = batch.stream()
+                .collect(Collectors.groupingBy(pending -> latest.get(pending.id())));
+        return Flux.fromIterable(byStatus.entrySet())
+                .concatMap(group -> {
+                    List<PendingStatus> changes = group.getValue();
+                    List<Long> ids = changes.stream().map(PendingStatus::id).distinct().toList();
+                    return Mono.defer(() -> batchRepository.updateStatus(group.getKey(), ids))
+                            .doOnNext(rows -> {
+                                changes.forEach(pending -> pending.written().tryEmitEmpty());
+                                log.debug("Moved {} notifications to {}", rows, group.getKey());
+                            })
+                            .onErrorResume(e -> {
+                                log.error("Failed to move {} notifications to {}", ids.size(), group.getKey(), e);
+                                changes.forEach(pending -> pending.written().tryEmitError(e));
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    private record PendingInsert(Notification notification, Sinks.One<Notification> saved) {
+    }
+
+    private record PendingStatus(Long id, NotificationStatus status, Sinks.Empty<Void> written) {
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.model.Notification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cross-instance SSE fan-out over Redis Pub/Sub
+ *
+ * LEARNING NOTES:
+ * - Each user has a channel, notifications:user:{userId}
+ * - An instance subscribes to a user's channel only while that user has an SSE
+ *   connection on it (NotificationStreamService presence callbacks), and for
+ *   notification.relay.linger after the last one closes, so it only receives
+ *   notifications it can deliver or a client reconnecting here will resume from
+ * - While subscribed, everything the user gets is recorded in the replay buffer; the
+ *   stream service is told when the subscription is confirmed and when it ends or
+ *   Redis drops it, so it knows when the buffer holds every instance's notifications
+ * - Notifications processed here are delivered locally right away and published
+ *   once per tick: everything a user got within the tick goes out as one message,
+ *   so Redis traffic follows active users rather than notification volume
+ * - Messages carry the id of the publishing instance, which ignores its own
+ */
+@Component
+public class NotificationRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRelay.class);
+
+    static final String CHANNEL_PREFIX = "notifications:user:";
+
+    private static final int PUBLISH_CONCURRENCY = 16;
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONTENTION = Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1));
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final NotificationStreamService streamService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration tick;
+    private final Duration linger;
+    private final int maxBatch;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Sinks.Many<Notification> outgoing = Sinks.many().unicast().onBackpressureBuffer();
+    /**
+     * userId -> subscription to that user's channel, while the user is connected here or lingering
+     */
+    private final Map<Long, Disposable> subscriptions = new ConcurrentHashMap<>();
+    /**
+     * userId -> timer dropping the channel of a user whose last connection closed
+     */
+    private final Map<Long, Disposable> pendingDrops = new ConcurrentHashMap<>();
+
+    public NotificationRelay(ReactiveStringRedisTemplate redisTemplate,
+                             ReactiveRedisMessageListenerContainer listenerContainer,
+                             NotificationStreamService streamService,
+                             ObjectMapper objectMapper,
+                             @Value("${notification.relay.enabled:true}") boolean enabled,
+                             @Value("${notification.relay.tick:50ms}") Duration tick,
+                             @Value("${notification.relay.linger:5m}") Duration linger,
+                             @Value("${notification.relay.max-batch:1000}") int maxBatch) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.streamService = streamService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.tick = tick;
+        this.linger = linger;
+        this.maxBatch = maxBatch;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Notification relay disabled: SSE clients only see notifications processed by this instance");
+            return;
+        }
+        streamService.addPresenceListener(this::refresh);
+        outgoing.asFlux()
+                .bufferTimeout(maxBatch, tick, true)
+                .concatMap(this::publishTick)
+                .subscribe(null, e -> log.error("Notification relay publisher stopped", e));
+        log.info("Notification relay started (instance {}, tick {})", instanceId, tick);
+    }
+
+    @PreDestroy
+    public void stop() {
+        outgoing.tryEmitComplete();
+        pendingDrops.values().forEach(Disposable::dispose);
+        pendingDrops.clear();
+        subscriptions.values().forEach(Disposable::dispose);
+        subscriptions.clear();
+    }
+
+    /**
+     * Queue a notification processed here for the other instances
+     */
+    public void publish(Notification notification) {
+        if (enabled) {
+            outgoing.emitNext(notification, RETRY_ON_CONTENTION);
+        }
+    }
+
+    /**
+     * Number of user channels this instance is subscribed to
+     */
+    public int subscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * One message per user for everything queued within the tick
+     */
+    Mono<Void> publishTick(List<Notification> batch) {
+        Map<Long, List<Notification>> byUser = batch.stream()
+                .collect(Collectors.groupingBy(Notification::userId, LinkedHashMap::new, Collectors.toList()));
+        return Flux.fromIterable(byUser.entrySet())
+                .flatMap(user -> Mono.fromCallable(() -> encode(user.getValue()))
+                        .flatMap(message -> redisTemplate.convertAndSend(channel(user.getKey()), message))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to relay {} notification(s) of user {}", user.getValue().size(), user.getKey(), e);
+                            return Mono.empty();
+                        }), PUBLISH_CONCURRENCY)
+                .then();
+    }
+
+    /**
+     * Subscribe to the user's channel when the user connects here, and drop it once the
+     * user has been away for the linger
+     *
+     * compute() serializes changes per user, and the connection count is read inside it,
+     * so racing connects and disconnects still end in the right state
+     */
+    void refresh(Long userId) {
+        subscriptions.compute(userId, (id, subscription) -> {
+            if (streamService.connectionCount(id) > 0) {
+                cancelDrop(id);
+                return subscription != null ? subscription : subscribe(id);
+            }
+            if (subscription != null) {
+                if (linger.isZero()) {
+                    unsubscribe(id, subscription);
+                    return null;
+                }
+                // Keep recording for the user: a client reconnecting here resumes from the buffer
+                Disposable previous = pendingDrops.put(id, Mono.delay(linger).subscribe(elapsed -> drop(id)));
+                if (previous != null) {
+                    previous.dispose();
+                }
+            }
+            return subscription;
+        });
+    }
+
+    private void drop(Long userId) {
+        pendingDrops.remove(userId);
+        subscriptions.computeIfPresent(userId, (id, subscription) -> {
+            if (streamService.connectionCount(id) > 0) {
+                return subscription;
+            }
+            unsubscribe(id, subscription);
+            return null;
+        });
+    }
+
+    private void cancelDrop(Long userId) {
+        Disposable pending = pendingDrops.remove(userId);
+        if (pending != null) {
+            pending.dispose();
+        }
+    }
+
+    private void unsubscribe(Long userId, Disposable subscription) {
+        log.debug("Dropping relay channel of user {}", userId);
+        subscription.dispose();
+        streamService.relayDetached(userId);
+    }
+
+    private Disposable subscribe(Long userId) {
+        log.debug("Subscribing to relay channel of user {}", userId);
+        // receiveLater() emits once Redis has confirmed the subscription, so nothing after it is missed
+        return listenerContainer.receiveLater(ChannelTopic.of(channel(userId)))
+                .doOnNext(subscribed -> streamService.relayAttached(userId))
+                .flatMapMany(Function.identity())
+                // Whatever is published until the retry subscribes again is only in the database
+                .doOnError(e -> {
+                    log.warn("Lost relay channel of user {}, resubscribing", userId, e);
+                    streamService.relayDetached(userId);
+                })
+                .concatMap(message -> decode(message.getMessage()))
+                .filter(message -> !instanceId.equals(message.origin()))
+                // Redis unavailable: keep trying while the user is connected
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(message -> deliver(userId, message),
+                        e -> log.error("Relay channel of user {} stopped", userId, e));
+    }
+
+    /**
+     * Hand relayed notifications to the stream service; a failure is logged instead of
+     * ending the subscription
+     */
+    private void deliver(Long userId, RelayMessage message) {
+        for (Notification notification : message.notifications()) {
+            try {
+                streamService.emitNotification(notification);
+            } catch (RuntimeException e) {
+                log.warn("Failed to deliver relayed notification {} of user {}", notification.id(), userId, e);
+                // The buffer may have missed it: start the user's ring over so resumes read the database
+                streamService.relayAttached(userId);
+            }
+        }
+    }
+
+    private String encode(List<Notification> notifications) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new RelayMessage(instanceId, notifications));
+    }
+
+    private Mono<RelayMessage> decode(String payload) {
+        try {
+            return Mono.just(objectMapper.readValue(payload, RelayMessage.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable relay message", e);
+            return Mono.empty();
+        }
+    }
+
+    static String channel(Long userId) {
+        return CHANNEL_PREFIX + userId;
+    }
+
+    /**
+     * Payload of a relay message: the publishing instance and the user's notifications
+     */
+    record RelayMessage(String origin, List<Notification> notifications) {
+    }
+}
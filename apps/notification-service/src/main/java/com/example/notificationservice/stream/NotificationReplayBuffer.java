@@ -0,0 +1,175 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.model.Notification;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recent notifications per user, for resuming an SSE stream after a reconnect
+ *
+ * LEARNING NOTES:
+ * - Each user has a ring of the last notification.replay.per-user notifications
+ * - All rings together hold at most notification.replay.max-entries; past that,
+ *   whole users are dropped, least recently written first (LinkedHashMap in access order)
+ * - A ring can only answer "what came after id X" if it still holds everything after X.
+ *   It remembers the highest id it has dropped (or, if none, its first id) as its floor,
+ *   and only answers for X at or above it. Older gaps go to the database
+ * - Ids do not arrive in order, so the ring drops by arrival and the floor only ever rises:
+ *   a late, lower id neither lowers it when recorded nor when dropped
+ */
+@Component
+public class NotificationReplayBuffer {
+
+    private final int perUser;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // accessOrder = true: iteration starts at the least recently used user
+    private final LinkedHashMap<Long, Ring> rings = new LinkedHashMap<>(16, 0.75f, true);
+    private int entries;
+
+    public NotificationReplayBuffer(@Value("${notification.replay.per-user:50}") int perUser,
+                                    @Value("${notification.replay.max-entries:100000}") int maxEntries,
+                                    MeterRegistry meterRegistry) {
+        this.perUser = perUser;
+        this.maxEntries = maxEntries;
+        Gauge.builder("notification.replay.entries", this, NotificationReplayBuffer::size)
+                .description("Notifications held for SSE resume")
+                .register(meterRegistry);
+        Gauge.builder("notification.replay.users", this, NotificationReplayBuffer::users)
+                .description("Users with notifications held for SSE resume")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Remember a notification that was streamed (or would have been) to its user
+     */
+    public void record(Notification notification) {
+        lock.lock();
+        try {
+            Ring ring = rings.computeIfAbsent(notification.userId(), id -> new Ring(notification.id()));
+            ring.notifications.addLast(notification);
+            entries++;
+            if (ring.notifications.size() > perUser) {
+                ring.raiseFloor(ring.notifications.removeFirst().id());
+                entries--;
+            }
+            evictLeastRecentlyUsed(notification.userId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Notifications of the user with an id above lastEventId, oldest first
+     *
+     * @return empty if the buffer no longer holds the whole gap
+     */
+    public Optional<List<Notification>> since(Long userId, long lastEventId) {
+        lock.lock();
+        try {
+            Ring ring = rings.get(userId);
+            if (ring == null || lastEventId < ring.floor) {
+                return Optional.empty();
+            }
+            return Optional.of(ring.notifications.stream()
+                    .filter(notification -> notification.id() > lastEventId)
+                    .sorted(Comparator.comparing(Notification::id))
+                    .toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whatever the buffer holds for the user above lastEventId, oldest first, whether or not
+     * that is the whole gap
+     */
+    public List<Notification> recent(Long userId, long lastEventId) {
+        lock.lock();
+        try {
+            Ring ring = rings.get(userId);
+            if (ring == null) {
+                return List.of();
+            }
+            return ring.notifications.stream()
+                    .filter(notification -> notification.id() > lastEventId)
+                    .sorted(Comparator.comparing(Notification::id))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop everything held for the user; the next notification recorded starts a new ring
+     * with its id as the floor
+     */
+    public void forget(Long userId) {
+        lock.lock();
+        try {
+            Ring ring = rings.remove(userId);
+            if (ring != null) {
+                entries -= ring.notifications.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int users() {
+        lock.lock();
+        try {
+            return rings.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictLeastRecentlyUsed(Long current) {
+        Iterator<Map.Entry<Long, Ring>> eldest = rings.entrySet().iterator();
+        while (entries > maxEntries && eldest.hasNext()) {
+            Map.Entry<Long, Ring> entry = eldest.next();
+            // The user just written to is the most recently used; keep it even if it alone is over the cap
+            if (entry.getKey().equals(current)) {
+                break;
+            }
+            entries -= entry.getValue().notifications.size();
+            eldest.remove();
+        }
+    }
+
+    private static final class Ring {
+
+        private final ArrayDeque<Notification> notifications = new ArrayDeque<>();
+        private long floor;
+
+        private Ring(long firstId) {
+            this.floor = firstId;
+        }
+
+        private void raiseFloor(long droppedId) {
+            floor = Math.max(floor, droppedId);
+        }
+    }
+}
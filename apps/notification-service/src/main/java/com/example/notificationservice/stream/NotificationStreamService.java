@@ -1,106 +1,313 @@
 package com.example.notificationservice.stream;
 
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Notification Stream Service for Server-Sent Events (SSE)
- * 
+ *
  * LEARNING NOTES - Hot vs Cold Publishers:
- * 
+ *
  * COLD Publisher (most Flux/Mono):
  * - Starts producing data when subscribed
  * - Each subscriber gets its own independent stream
  * - Example: Flux.range(1, 10)
- * 
- * HOT Publisher (Sinks.many().multicast()):
+ *
+ * HOT Publisher (Sinks.many()):
  * - Produces data regardless of subscribers
- * - All subscribers share the same stream
  * - Late subscribers miss earlier events
  * - Use case: Real-time notifications, chat messages, live updates
- * 
- * This implementation uses HOT publisher for real-time notification broadcasting
+ *
+ * ROUTING TABLE instead of one shared stream:
+ * - A single multicast sink filtered per subscriber checks every notification
+ *   against every open connection: O(connections) per event
+ * - Here each SSE connection gets its own sink, registered under its user id,
+ *   so an emit is one map lookup plus that user's own connections
+ * - A connection's entry is removed when it cancels or ends; a user without
+ *   connections has no entry at all
+ *
+ * RESUME (Last-Event-ID):
+ * - Every emitted notification is also kept in NotificationReplayBuffer
+ * - A reconnecting client first gets what it missed, from the buffer or, for older
+ *   gaps, from the database, then the live stream. The connection is registered
+ *   before the replay is read, so nothing emitted in between is lost
+ * - With the relay on, notifications of other instances only reach this buffer while
+ *   NotificationRelay holds the user's channel: while the user is connected here and for
+ *   notification.relay.linger after. The relay reports when it attaches (the ring is
+ *   started over, so its floor is after the attach) and when it detaches or loses Redis.
+ *   While attached the ring is the whole gap above its floor and resumes are served
+ *   as without the relay; otherwise they read the database and merge in the buffer
  */
 @Service
 public class NotificationStreamService {
-    
+
     private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
-    
+
+    // Notifications a connection may fall behind by before it is closed (the client reconnects)
+    private static final int SESSION_BUFFER = 256;
+
     /**
-     * Hot publisher for broadcasting notifications
-     * 
-     * Sinks.many().multicast():
-     * - Multiple subscribers
-     * - Shared stream
-     * - onBackpressureBuffer() handles slow consumers
+     * userId -> sinks of that user's open SSE connections
      */
-    private final Sinks.Many<Notification> notificationSink;
-    private final Flux<Notification> notificationFlux;
-    
-    public NotificationStreamService() {
-        // Create a multicast sink for hot observable
-        this.notificationSink = Sinks.many().multicast().onBackpressureBuffer();
-        
-        // Create a hot Flux that multiple subscribers can share
-        this.notificationFlux = notificationSink.asFlux();
-        
-        log.info("✅ Notification Stream Service initialized (HOT publisher)");
+    private final Map<Long, Set<Sinks.Many<Notification>>> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    // Told the user id when a user's first connection opens or its last one closes
+    private final List<Consumer<Long>> presenceListeners = new CopyOnWriteArrayList<>();
+    private final NotificationReplayBuffer replayBuffer;
+    private final NotificationRepository notificationRepository;
+    private final Counter replayedFromBuffer;
+    private final Counter replayedFromDatabase;
+    private final boolean relayEnabled;
+    // Users whose notifications from every instance reach this one, see relayAttached()
+    private final Set<Long> relayed = ConcurrentHashMap.newKeySet();
+
+    public NotificationStreamService(NotificationReplayBuffer replayBuffer,
+                                     NotificationRepository notificationRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notification.relay.enabled:true}") boolean relayEnabled) {
+        this.replayBuffer = replayBuffer;
+        this.notificationRepository = notificationRepository;
+        this.relayEnabled = relayEnabled;
+        this.replayedFromBuffer = Counter.builder("notification.sse.resumes")
+                .description("SSE streams resumed with Last-Event-ID")
+                .tag("source", "buffer")
+                .register(meterRegistry);
+        this.replayedFromDatabase = Counter.builder("notification.sse.resumes")
+                .description("SSE streams resumed with Last-Event-ID")
+                .tag("source", "database")
+                .register(meterRegistry);
+        Gauge.builder("notification.sse.connections", connections, AtomicInteger::get)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+        Gauge.builder("notification.sse.users", sessions, Map::size)
+                .description("Users with at least one open SSE connection")
+                .register(meterRegistry);
+
+        log.info("✅ Notification Stream Service initialized (per-user routing)");
     }
-    
+
     /**
-     * Emit a notification to all subscribers
-     * 
-     * @param notification The notification to broadcast
+     * Emit a notification to the connections of its user on this instance
+     *
+     * NotificationRelay calls this for notifications processed by other instances
+     *
+     * @param notification The notification to deliver
      */
     public void emitNotification(Notification notification) {
-        Sinks.EmitResult result = notificationSink.tryEmitNext(notification);
-        
-        if (result.isSuccess()) {
-            log.info("📡 Broadcast notification {} to all subscribers", notification.id());
-        } else {
-            log.warn("Failed to emit notification: {}", result);
+        // Kept whether or not the user is connected: a client that is away resumes from here
+        replayBuffer.record(notification);
+        Set<Sinks.Many<Notification>> userSessions = sessions.get(notification.userId());
+        if (userSessions == null) {
+            log.debug("No SSE connection for user {}, notification {} not streamed", notification.userId(), notification.id());
+            return;
+        }
+        for (Sinks.Many<Notification> session : userSessions) {
+            emit(session, notification);
         }
+        log.info("📡 Sent notification {} to {} connection(s) of user {}", notification.id(), userSessions.size(), notification.userId());
     }
-    
+
     /**
      * Get notification stream for a specific user
-     * 
-     * REACTIVE PATTERN: Filter infinite stream for specific user
-     * 
+     *
+     * REACTIVE PATTERN: Flux.defer() so every subscription registers its own sink
+     *
      * SSE clients will subscribe to this Flux and receive real-time updates
      */
     public Flux<Notification> getNotificationStream(Long userId) {
-        log.info("New SSE subscriber for user: {}", userId);
-        
-        return notificationFlux
-                .filter(notification -> notification.userId().equals(userId))
-                .doOnSubscribe(sub -> log.info("User {} subscribed to notification stream", userId))
-                .doOnCancel(() -> log.info("User {} unsubscribed from notification stream", userId));
+        return getNotificationStream(userId, null);
     }
-    
+
+    /**
+     * Get notification stream for a user, starting after the last event the client saw
+     *
+     * @param lastEventId the client's Last-Event-ID, or null for live notifications only
+     */
+    public Flux<Notification> getNotificationStream(Long userId, Long lastEventId) {
+        log.info("New SSE subscriber for user: {} (last event {})", userId, lastEventId);
+
+        return Flux.defer(() -> {
+            Sinks.Many<Notification> session = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Notification>get(SESSION_BUFFER).get());
+            // Registered first: live notifications queue in the session while the replay is read
+            register(userId, session);
+            Flux<Notification> live = session.asFlux();
+            Flux<Notification> stream = lastEventId == null ? live : resume(userId, lastEventId, live);
+            return stream
+                    .doOnSubscribe(sub -> log.info("User {} subscribed to notification stream", userId))
+                    .doFinally(signal -> {
+                        unregister(userId, session);
+                        log.info("User {} unsubscribed from notification stream ({})", userId, signal);
+                    });
+        });
+    }
+
     /**
      * Get notification stream with heartbeat
-     * 
+     *
      * Sends periodic heartbeat to keep SSE connection alive
      * Merges real notifications with empty heartbeat notifications
      */
     public Flux<Notification> getNotificationStreamWithHeartbeat(Long userId) {
         // Real notifications for user
         Flux<Notification> userNotifications = getNotificationStream(userId);
-        
+
         // Heartbeat every 30 seconds (empty notification as keep-alive)
         Flux<Notification> heartbeat = Flux.interval(Duration.ofSeconds(30))
                 .map(tick -> new Notification(
                         null, userId, "heartbeat", null, null, null, null, null, null, null, null
                 ));
-        
+
         // Merge both streams
         return Flux.merge(userNotifications, heartbeat);
     }
+
+    /**
+     * Register a callback for users gaining their first or losing their last connection
+     * 
+     * Called after the change; check connectionCount() for the current state
+     */
+    public void addPresenceListener(Consumer<Long> listener) {
+        presenceListeners.add(listener);
+    }
+
+    /**
+     * NotificationRelay now receives the user's notifications from the other instances
+     *
+     * What the ring held before may miss some of them, so it is started over
+     */
+    public void relayAttached(Long userId) {
+        replayBuffer.forget(userId);
+        relayed.add(userId);
+    }
+
+    /**
+     * NotificationRelay no longer receives the user's notifications from the other instances
+     */
+    public void relayDetached(Long userId) {
+        relayed.remove(userId);
+        replayBuffer.forget(userId);
+    }
+
+    /**
+     * Number of open connections of a user
+     */
+    public int connectionCount(Long userId) {
+        Set<Sinks.Many<Notification>> userSessions = sessions.get(userId);
+        return userSessions == null ? 0 : userSessions.size();
+    }
+
+    /**
+     * Missed notifications, then live ones; a live notification that was already replayed is
+     * dropped, as it can be both in the replay and queued in the session
+     *
+     * Live ids are not in order (concurrent partition lanes, relayed batches), so the live stream
+     * is only checked against the replayed ids, not against the highest id sent
+     */
+    private Flux<Notification> resume(Long userId, long lastEventId, Flux<Notification> live) {
+        Flux<Notification> missed = !relayEnabled || relayed.contains(userId)
+                ? missedHere(userId, lastEventId)
+                : missedAcrossInstances(userId, lastEventId);
+        Set<Long> replayed = ConcurrentHashMap.newKeySet();
+        // Each replayed id is queued in the session at most once, so it is forgotten when matched
+        return Flux.concat(missed.doOnNext(notification -> replayed.add(notification.id())),
+                live.filter(notification -> !replayed.remove(notification.id())));
+    }
+
+    /**
+     * The gap from the buffer when it still holds all of it, otherwise from the database
+     */
+    private Flux<Notification> missedHere(Long userId, long lastEventId) {
+        return replayBuffer.since(userId, lastEventId)
+                .map(buffered -> {
+                    replayedFromBuffer.increment();
+                    return Flux.fromIterable(buffered);
+                })
+                .orElseGet(() -> {
+                    replayedFromDatabase.increment();
+                    log.info("Replay buffer does not reach event {} of user {}, reading the gap from the database", lastEventId, userId);
+                    return notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, lastEventId);
+                });
+    }
+
+    /**
+     * The gap from the database, which has what every instance processed, merged by id with
+     * the buffer; the buffered copies are the ones this instance streamed
+     */
+    private Flux<Notification> missedAcrossInstances(Long userId, long lastEventId) {
+        replayedFromDatabase.increment();
+        List<Notification> buffered = replayBuffer.recent(userId, lastEventId);
+        return notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, lastEventId)
+                .collectMap(Notification::id, Function.identity(), TreeMap::new)
+                .flatMapIterable(byId -> {
+                    buffered.forEach(notification -> byId.put(notification.id(), notification));
+                    return byId.values();
+                });
+    }
+
+    private void register(Long userId, Sinks.Many<Notification> session) {
+        AtomicBoolean firstConnection = new AtomicBoolean();
+        // compute() makes adding to the set atomic with creating it
+        sessions.compute(userId, (id, userSessions) -> {
+            Set<Sinks.Many<Notification>> updated = userSessions != null ? userSessions : ConcurrentHashMap.newKeySet();
+            firstConnection.set(updated.isEmpty());
+            updated.add(session);
+            return updated;
+        });
+        connections.incrementAndGet();
+        if (firstConnection.get()) {
+            presenceListeners.forEach(listener -> listener.accept(userId));
+        }
+    }
+
+    private void unregister(Long userId, Sinks.Many<Notification> session) {
+        AtomicBoolean lastConnection = new AtomicBoolean();
+        // Returning null drops the user's entry together with its last connection
+        sessions.computeIfPresent(userId, (id, userSessions) -> {
+            if (userSessions.remove(session)) {
+                connections.decrementAndGet();
+            }
+            lastConnection.set(userSessions.isEmpty());
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        if (lastConnection.get()) {
+            presenceListeners.forEach(listener -> listener.accept(userId));
+        }
+    }
+
+    private void emit(Sinks.Many<Notification> session, Notification notification) {
+        Sinks.EmitResult result;
+        // Another thread may be emitting to the same connection; retry until it is done
+        while ((result = session.tryEmitNext(notification)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+            log.warn("SSE connection of user {} is {} notifications behind, closing it", notification.userId(), SESSION_BUFFER);
+            session.tryEmitError(new IllegalStateException("SSE client too slow"));
+        } else if (result.isFailure() && result != Sinks.EmitResult.FAIL_TERMINATED && result != Sinks.EmitResult.FAIL_CANCELLED) {
+            log.warn("Failed to emit notification: {}", result);
+        }
+    }
 }
@@ -8,9 +8,12 @@ import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -55,4 +58,26 @@ class NotificationServiceTests {
                 })
                 .verifyComplete();
     }
+
+    /**
+     * Test the id-range query used to resume an SSE stream
+     */
+    @Test
+    void testFindNotificationsAfterId() {
+        Long userId = 40L;
+        List<Notification> saved = Flux.range(1, 3)
+                .concatMap(i -> repository.save(Notification.create(
+                        userId,
+                        "Notification " + i,
+                        "Test Message",
+                        com.example.notificationservice.model.NotificationType.BOOKING_CONFIRMED,
+                        com.example.notificationservice.model.NotificationChannel.IN_APP)))
+                .collectList()
+                .block();
+        Long firstId = saved.get(0).id();
+
+        StepVerifier.create(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, firstId).map(Notification::title))
+                .expectNext("Notification 2", "Notification 3")
+                .verifyComplete();
+    }
 }
@@ -0,0 +1,111 @@
+package com.example.notificationservice;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationChannel;
+import com.example.notificationservice.model.NotificationStatus;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.repository.NotificationBatchRepository;
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.service.NotificationWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the write-behind stage against the H2 schema
+ *
+ * Requests are subscribed together, so they land in the same batch; each test
+ * uses its own user id, as the in-memory database is shared with other tests
+ */
+@DataR2dbcTest(properties = "notification.write-behind.window=50ms")
+@ActiveProfiles("test")
+@Import({NotificationBatchRepository.class, NotificationWriteBuffer.class})
+class NotificationWriteBufferTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private NotificationWriteBuffer writeBuffer;
+
+    @Autowired
+    private NotificationRepository repository;
+
+    @Test
+    void testInsertReturnsGeneratedIdsInOrder() {
+        List<Notification> batch = List.of(notification(1L, "first"), notification(2L, "second"), notification(3L, "third"));
+
+        List<Notification> saved = Flux.fromIterable(batch)
+                .flatMapSequential(writeBuffer::insert)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(saved).extracting(Notification::title).containsExactly("first", "second", "third");
+        assertThat(saved).extracting(Notification::id).doesNotContainNull().doesNotHaveDuplicates();
+        for (Notification notification : saved) {
+            StepVerifier.create(repository.findById(notification.id()))
+                    .assertNext(stored -> {
+                        assertThat(stored.title()).isEqualTo(notification.title());
+                        assertThat(stored.userId()).isEqualTo(notification.userId());
+                        assertThat(stored.status()).isEqualTo(NotificationStatus.PENDING);
+                        assertThat(stored.metadata()).isNull();
+                    })
+                    .expectComplete()
+                .verify(TIMEOUT);
+        }
+    }
+
+    @Test
+    void testStatusChangesAreGroupedAndLastOneWins() {
+        List<Notification> saved = Flux.just(notification(20L, "a"), notification(20L, "b"), notification(20L, "c"))
+                .flatMapSequential(writeBuffer::insert)
+                .collectList()
+                .block(TIMEOUT);
+
+        Mono.when(
+                writeBuffer.updateStatus(saved.get(0).id(), NotificationStatus.SENT),
+                writeBuffer.updateStatus(saved.get(1).id(), NotificationStatus.SENT),
+                writeBuffer.updateStatus(saved.get(2).id(), NotificationStatus.SENT),
+                writeBuffer.updateStatus(saved.get(2).id(), NotificationStatus.FAILED)
+        ).block(TIMEOUT);
+
+        StepVerifier.create(repository.findByUserIdOrderByCreatedAtDesc(20L).map(Notification::status).collectList())
+                .assertNext(statuses -> assertThat(statuses)
+                        .containsExactlyInAnyOrder(NotificationStatus.SENT, NotificationStatus.SENT, NotificationStatus.FAILED))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void testFailedStatementFailsEveryCallerInTheBatch() {
+        // title is VARCHAR(255), so the whole multi-row INSERT is rejected
+        Notification invalid = notification(30L, "x".repeat(256));
+
+        StepVerifier.create(Mono.zip(writeBuffer.insert(notification(30L, "valid")), writeBuffer.insert(invalid)))
+                .expectError()
+                .verify(TIMEOUT);
+        StepVerifier.create(repository.findByUserIdOrderByCreatedAtDesc(30L).count())
+                .expectNext(0L)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        // The stage keeps running after a failed batch
+        StepVerifier.create(writeBuffer.insert(notification(30L, "after")))
+                .assertNext(saved -> assertThat(saved.id()).isNotNull())
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    private static Notification notification(Long userId, String title) {
+        return Notification.create(userId, title, "message", NotificationType.BOOKING_CONFIRMED, NotificationChannel.IN_APP);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.notificationservice.consumer;
+
+import com.example.notificationservice.dto.BookingEventDto;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the partition lanes of BookingEventConsumer
+ *
+ * The user id of each event encodes partition * 100 + sequence, so the calls
+ * to NotificationService show which record was processed when
+ */
+class BookingEventConsumerTests {
+
+    private static final int LANES = 2;
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final KafkaReceiver<String, byte[]> receiver = mock();
+    private final BookingEventConsumer consumer = new BookingEventConsumer(
+            receiver, notificationService, MAPPER, LANES, Duration.ofMillis(10));
+
+    @Test
+    void testPartitionsKeepOrderWithBoundedConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<Integer, List<Integer>> processed = new ConcurrentHashMap<>();
+        when(notificationService.createAndSendNotification(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            int partition = (int) (notification.userId() / 100);
+            int sequence = (int) (notification.userId() % 100);
+            return Mono.delay(Duration.ofMillis(5))
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doOnNext(tick -> {
+                        processed.computeIfAbsent(partition, p -> new CopyOnWriteArrayList<>()).add(sequence);
+                        // Before completing: the lane moves to its next record on completion
+                        inFlight.decrementAndGet();
+                    })
+                    .thenReturn(notification);
+        });
+
+        // Interleaved records from four partitions, as a fetch would return them
+        List<ReceiverRecord<String, byte[]>> records = new ArrayList<>();
+        List<ReceiverOffset> offsets = new ArrayList<>();
+        for (int sequence = 0; sequence < 10; sequence++) {
+            for (int partition = 0; partition < 4; partition++) {
+                ReceiverOffset offset = mock(ReceiverOffset.class);
+                offsets.add(offset);
+                records.add(record(partition, sequence, confirmed(partition * 100L + sequence), offset));
+            }
+        }
+
+        StepVerifier.create(consumer.process(Flux.fromIterable(records)))
+                .expectNextCount(records.size())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(LANES);
+        assertThat(processed).hasSize(4);
+        processed.values().forEach(sequences -> assertThat(sequences).isSorted().hasSize(10));
+        offsets.forEach(offset -> verify(offset).acknowledge());
+    }
+
+    @Test
+    void testOffsetIsAcknowledgedOnlyAfterProcessing() {
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        when(notificationService.createAndSendNotification(any())).thenAnswer(invocation -> {
+            verify(offset, never()).acknowledge();
+            return Mono.just(invocation.getArgument(0));
+        });
+
+        StepVerifier.create(consumer.process(Flux.just(record(0, 0, confirmed(1L), offset))))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(offset, times(1)).acknowledge();
+    }
+
+    @Test
+    void testFailedRecordIsRetriedBeforeTheLaneMovesOn() {
+        ReceiverOffset failing = mock(ReceiverOffset.class);
+        ReceiverOffset next = mock(ReceiverOffset.class);
+        List<Long> calls = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger(2);
+        when(notificationService.createAndSendNotification(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            calls.add(notification.userId());
+            if (notification.userId() == 1L && failures.getAndDecrement() > 0) {
+                verify(failing, never()).acknowledge();
+                return Mono.error(new IllegalStateException("database unavailable"));
+            }
+            return Mono.just(notification);
+        });
+
+        StepVerifier.create(consumer.process(Flux.just(
+                        record(0, 0, confirmed(1L), failing),
+                        record(0, 1, confirmed(2L), next))))
+                .expectNextCount(2)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // The next record of the partition only runs once the failed one went through
+        assertThat(calls).containsExactly(1L, 1L, 1L, 2L);
+        verify(failing).acknowledge();
+        verify(next).acknowledge();
+    }
+
+    @Test
+    void testUndecodableRecordIsSkippedAndAcknowledged() {
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+
+        StepVerifier.create(consumer.process(Flux.just(record(0, 0, "not json".getBytes(StandardCharsets.UTF_8), offset))))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(offset).acknowledge();
+        verify(notificationService, never()).createAndSendNotification(any());
+    }
+
+    private static byte[] confirmed(Long userId) {
+        BookingEventDto event = new BookingEventDto(BookingEventDto.BOOKING_CONFIRMED, 1L, userId, "GYM",
+                LocalDateTime.of(2025, 12, 1, 10, 0), LocalDateTime.of(2025, 12, 1, 11, 0), null);
+        try {
+            return MAPPER.writeValueAsBytes(event);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ReceiverRecord<String, byte[]> record(int partition, long offset, byte[] value, ReceiverOffset receiverOffset) {
+        return new ReceiverRecord<>(new ConsumerRecord<>("booking-events", partition, offset, "GYM", value), receiverOffset);
+    }
+}
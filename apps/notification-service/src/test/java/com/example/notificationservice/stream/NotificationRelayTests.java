@@ -0,0 +1,182 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationChannel;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the Redis relay with the template and listener container mocked
+ *
+ * Channel messages are pushed through a sink per test, as Redis would deliver them
+ */
+class NotificationRelayTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final NotificationStreamService streamService = new NotificationStreamService(
+            new NotificationReplayBuffer(50, 1000, meterRegistry), repository, meterRegistry, true);
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveRedisMessageListenerContainer listenerContainer = mock(ReactiveRedisMessageListenerContainer.class);
+    private final Sinks.Many<ReactiveSubscription.Message<String, String>> channel = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger channelSubscribers = new AtomicInteger();
+
+    private NotificationRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        when(listenerContainer.receiveLater(any(ChannelTopic.class))).thenReturn(Mono.just(channel.asFlux()
+                .doOnSubscribe(s -> channelSubscribers.incrementAndGet())
+                .doOnCancel(channelSubscribers::decrementAndGet)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (relay != null) {
+            relay.stop();
+        }
+    }
+
+    @Test
+    void testPublishesOneMessagePerUserPerTick() throws Exception {
+        startRelay(Duration.ZERO);
+        relay.publish(notification(1L, 1L));
+        relay.publish(notification(2L, 1L));
+        relay.publish(notification(3L, 1L));
+        relay.publish(notification(4L, 2L));
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, timeout(2000)).convertAndSend(eq("notifications:user:1"), payload.capture());
+        verify(redisTemplate, timeout(2000)).convertAndSend(eq("notifications:user:2"), anyString());
+        verify(redisTemplate, times(2)).convertAndSend(anyString(), anyString());
+        NotificationRelay.RelayMessage message = MAPPER.readValue(payload.getValue(), NotificationRelay.RelayMessage.class);
+        assertThat(message.notifications()).extracting(Notification::id).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testSubscribesOnlyWhileTheUserIsConnected() {
+        startRelay(Duration.ZERO);
+        Disposable firstTab = streamService.getNotificationStream(1L).subscribe();
+        Disposable secondTab = streamService.getNotificationStream(1L).subscribe();
+
+        verify(listenerContainer, times(1)).receiveLater(ChannelTopic.of("notifications:user:1"));
+        assertThat(channelSubscribers.get()).isEqualTo(1);
+        assertThat(relay.subscriptionCount()).isEqualTo(1);
+
+        firstTab.dispose();
+        assertThat(channelSubscribers.get()).isEqualTo(1);
+        secondTab.dispose();
+
+        assertThat(channelSubscribers.get()).isZero();
+        assertThat(relay.subscriptionCount()).isZero();
+    }
+
+    @Test
+    void testDeliversNotificationsFromOtherInstancesOnly() throws Exception {
+        startRelay(Duration.ZERO);
+        List<Long> received = new CopyOnWriteArrayList<>();
+        Disposable tab = streamService.getNotificationStream(1L).subscribe(n -> received.add(n.id()));
+
+        // This instance's own message comes back from Redis too
+        relay.publishTick(List.of(notification(1L, 1L))).block(Duration.ofSeconds(5));
+        ArgumentCaptor<String> ownPayload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(anyString(), ownPayload.capture());
+        push(ownPayload.getValue());
+        push(MAPPER.writeValueAsString(new NotificationRelay.RelayMessage("other-instance",
+                List.of(notification(2L, 1L), notification(3L, 1L)))));
+        push("not json");
+
+        assertThat(received).containsExactly(2L, 3L);
+        tab.dispose();
+    }
+
+    @Test
+    void testKeepsTheChannelForTheLingerSoAReconnectResumesFromTheBuffer() throws Exception {
+        startRelay(Duration.ofMillis(300));
+        Disposable tab = streamService.getNotificationStream(1L).subscribe();
+        pushFromOtherInstance(notification(1L, 1L));
+        tab.dispose();
+
+        // Away, but still recorded here
+        assertThat(channelSubscribers.get()).isEqualTo(1);
+        pushFromOtherInstance(notification(2L, 1L), notification(3L, 1L));
+
+        StepVerifier.create(streamService.getNotificationStream(1L, 1L).take(2).map(Notification::id))
+                .expectNext(2L, 3L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(repository, never()).findByUserIdAndIdGreaterThanOrderByIdAsc(any(), any(Long.class));
+
+        Thread.sleep(600);
+        assertThat(channelSubscribers.get()).isZero();
+        assertThat(relay.subscriptionCount()).isZero();
+    }
+
+    @Test
+    void testFailedDeliveryKeepsTheSubscription() throws Exception {
+        startRelay(Duration.ZERO);
+        List<Long> received = new CopyOnWriteArrayList<>();
+        Disposable tab = streamService.getNotificationStream(1L).subscribe(n -> received.add(n.id()));
+
+        // A notification without an id cannot be recorded
+        pushFromOtherInstance(notification(null, 1L), notification(2L, 1L));
+        pushFromOtherInstance(notification(3L, 1L));
+
+        assertThat(received).containsExactly(2L, 3L);
+        assertThat(channelSubscribers.get()).isEqualTo(1);
+        tab.dispose();
+    }
+
+    private void startRelay(Duration linger) {
+        relay = new NotificationRelay(redisTemplate, listenerContainer, streamService, MAPPER, true,
+                Duration.ofMillis(200), linger, 1000);
+        relay.start();
+    }
+
+    private void pushFromOtherInstance(Notification... notifications) throws Exception {
+        push(MAPPER.writeValueAsString(new NotificationRelay.RelayMessage("other-instance", List.of(notifications))));
+    }
+
+    private void push(String payload) {
+        channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>("notifications:user:1", payload));
+    }
+
+    private static Notification notification(Long id, Long userId) {
+        return Notification.create(userId, "title", "message", NotificationType.BOOKING_CONFIRMED, NotificationChannel.IN_APP)
+                .withId(id);
+    }
+}
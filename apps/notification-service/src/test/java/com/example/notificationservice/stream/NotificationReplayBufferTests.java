@@ -0,0 +1,99 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationChannel;
+import com.example.notificationservice.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the per-user ring buffers and their LRU eviction
+ */
+class NotificationReplayBufferTests {
+
+    @Test
+    void testGapWithinTheRingIsReplayedInIdOrder() {
+        NotificationReplayBuffer buffer = new NotificationReplayBuffer(3, 100, new SimpleMeterRegistry());
+        buffer.record(notification(10L, 1L));
+        buffer.record(notification(12L, 1L));
+        buffer.record(notification(11L, 1L));
+
+        assertThat(buffer.since(1L, 10L)).hasValueSatisfying(missed ->
+                assertThat(missed).extracting(Notification::id).containsExactly(11L, 12L));
+        assertThat(buffer.since(1L, 12L)).hasValueSatisfying(missed -> assertThat(missed).isEmpty());
+    }
+
+    @Test
+    void testGapOlderThanTheRingIsNotAnswered() {
+        NotificationReplayBuffer buffer = new NotificationReplayBuffer(3, 100, new SimpleMeterRegistry());
+        for (long id = 1; id <= 5; id++) {
+            buffer.record(notification(id, 1L));
+        }
+
+        // 1 and 2 were dropped: a client that saw 2 can be served, one that saw 1 cannot
+        assertThat(buffer.since(1L, 2L)).hasValueSatisfying(missed ->
+                assertThat(missed).extracting(Notification::id).containsExactly(3L, 4L, 5L));
+        assertThat(buffer.since(1L, 1L)).isEmpty();
+        // Nothing is known from before the first notification recorded for a user
+        assertThat(buffer.since(2L, 1L)).isEmpty();
+        buffer.record(notification(6L, 2L));
+        assertThat(buffer.since(2L, 5L)).isEmpty();
+        assertThat(buffer.since(2L, 6L)).hasValueSatisfying(missed -> assertThat(missed).isEmpty());
+    }
+
+    @Test
+    void testFloorDoesNotMoveBackWhenALateIdIsDropped() {
+        NotificationReplayBuffer buffer = new NotificationReplayBuffer(2, 100, new SimpleMeterRegistry());
+        buffer.record(notification(10L, 1L));
+        // Lower than the first id, and dropped after 10 without lowering the floor again
+        buffer.record(notification(8L, 1L));
+        buffer.record(notification(12L, 1L));
+        buffer.record(notification(13L, 1L));
+
+        // 10 was dropped, so a client that saw 9 may have missed it
+        assertThat(buffer.since(1L, 9L)).isEmpty();
+        assertThat(buffer.since(1L, 10L)).hasValueSatisfying(missed ->
+                assertThat(missed).extracting(Notification::id).containsExactly(12L, 13L));
+    }
+
+    @Test
+    void testForgottenUserStartsANewRing() {
+        NotificationReplayBuffer buffer = new NotificationReplayBuffer(3, 100, new SimpleMeterRegistry());
+        buffer.record(notification(1L, 1L));
+        buffer.record(notification(2L, 1L));
+
+        buffer.forget(1L);
+
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.since(1L, 1L)).isEmpty();
+        buffer.record(notification(5L, 1L));
+        assertThat(buffer.since(1L, 2L)).isEmpty();
+        assertThat(buffer.since(1L, 5L)).hasValueSatisfying(missed -> assertThat(missed).isEmpty());
+    }
+
+    @Test
+    void testLeastRecentlyUsedUsersAreEvictedOverTheCap() {
+        NotificationReplayBuffer buffer = new NotificationReplayBuffer(3, 4, new SimpleMeterRegistry());
+        buffer.record(notification(1L, 1L));
+        buffer.record(notification(2L, 1L));
+        buffer.record(notification(3L, 2L));
+        buffer.record(notification(4L, 3L));
+        // Reading user 1 makes user 2 the least recently used
+        buffer.since(1L, 1L);
+
+        buffer.record(notification(5L, 3L));
+
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.users()).isEqualTo(2);
+        assertThat(buffer.since(2L, 3L)).isEmpty();
+        assertThat(buffer.since(1L, 1L)).isPresent();
+        assertThat(buffer.since(3L, 4L)).isPresent();
+    }
+
+    private static Notification notification(Long id, Long userId) {
+        return Notification.create(userId, "title", "message", NotificationType.BOOKING_CONFIRMED, NotificationChannel.IN_APP)
+                .withId(id);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.notificationservice.stream;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.NotificationChannel;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the per-user SSE routing table and Last-Event-ID resume
+ */
+class NotificationStreamServiceTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final NotificationStreamService streamService = new NotificationStreamService(
+            new NotificationReplayBuffer(3, 100, meterRegistry), repository, meterRegistry, false);
+
+    @Test
+    void testNotificationReachesOnlyItsUsersConnections() {
+        List<Long> firstTab = new CopyOnWriteArrayList<>();
+        List<Long> secondTab = new CopyOnWriteArrayList<>();
+        List<Long> otherUser = new CopyOnWriteArrayList<>();
+        Disposable first = streamService.getNotificationStream(1L).subscribe(n -> firstTab.add(n.id()));
+        Disposable second = streamService.getNotificationStream(1L).subscribe(n -> secondTab.add(n.id()));
+        Disposable other = streamService.getNotificationStream(2L).subscribe(n -> otherUser.add(n.id()));
+
+        streamService.emitNotification(notification(10L, 1L));
+        streamService.emitNotification(notification(11L, 3L));
+
+        assertThat(firstTab).containsExactly(10L);
+        assertThat(secondTab).containsExactly(10L);
+        assertThat(otherUser).isEmpty();
+        first.dispose();
+        second.dispose();
+        other.dispose();
+    }
+
+    @Test
+    void testCancelledConnectionsAreRemovedFromTheTableAndGauges() {
+        Disposable first = streamService.getNotificationStream(1L).subscribe();
+        Disposable second = streamService.getNotificationStream(1L).subscribe();
+        Disposable other = streamService.getNotificationStream(2L).subscribe();
+
+        assertThat(gauge("notification.sse.connections")).isEqualTo(3);
+        assertThat(gauge("notification.sse.users")).isEqualTo(2);
+
+        first.dispose();
+        assertThat(streamService.connectionCount(1L)).isEqualTo(1);
+        second.dispose();
+        other.dispose();
+
+        assertThat(streamService.connectionCount(1L)).isZero();
+        assertThat(gauge("notification.sse.connections")).isZero();
+        assertThat(gauge("notification.sse.users")).isZero();
+    }
+
+    @Test
+    void testEachSubscriptionGetsItsOwnSession() {
+        // Resubscribing to the same Flux (as a retrying client would) registers a fresh connection
+        var stream = streamService.getNotificationStream(1L);
+
+        StepVerifier.create(stream.take(1))
+                .then(() -> streamService.emitNotification(notification(1L, 1L)))
+                .expectNextMatches(n -> n.id() == 1L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(stream.take(1))
+                .then(() -> streamService.emitNotification(notification(2L, 1L)))
+                .expectNextMatches(n -> n.id() == 2L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(streamService.connectionCount(1L)).isZero();
+    }
+
+    @Test
+    void testResumeReplaysMissedNotificationsFromTheBuffer() {
+        streamService.emitNotification(notification(1L, 1L));
+        streamService.emitNotification(notification(2L, 1L));
+        streamService.emitNotification(notification(3L, 1L));
+
+        StepVerifier.create(streamService.getNotificationStream(1L, 1L).take(3))
+                .expectNextMatches(n -> n.id() == 2L)
+                .expectNextMatches(n -> n.id() == 3L)
+                .then(() -> streamService.emitNotification(notification(4L, 1L)))
+                .expectNextMatches(n -> n.id() == 4L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(repository, never()).findByUserIdAndIdGreaterThanOrderByIdAsc(any(), any());
+        assertThat(meterRegistry.get("notification.sse.resumes").tag("source", "buffer").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testResumeReadsGapsOlderThanTheBufferFromTheDatabase() {
+        // The buffer keeps 3 per user, so ids 1 and 2 have been dropped
+        for (long id = 1; id <= 5; id++) {
+            streamService.emitNotification(notification(id, 1L));
+        }
+        when(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 1L)).thenReturn(Flux.just(
+                notification(2L, 1L), notification(3L, 1L), notification(4L, 1L), notification(5L, 1L)));
+
+        StepVerifier.create(streamService.getNotificationStream(1L, 1L).take(4).map(Notification::id))
+                .expectNext(2L, 3L, 4L, 5L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(meterRegistry.get("notification.sse.resumes").tag("source", "database").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testNotificationEmittedDuringReplayIsSentOnce() {
+        // Emitted after the connection registered but before the database answered: in both
+        when(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 1L)).thenReturn(Flux.defer(() -> {
+            streamService.emitNotification(notification(2L, 1L));
+            return Flux.just(notification(2L, 1L));
+        }));
+
+        StepVerifier.create(streamService.getNotificationStream(1L, 1L).map(Notification::id))
+                .expectNext(2L)
+                .then(() -> streamService.emitNotification(notification(3L, 1L)))
+                .expectNext(3L)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testLiveNotificationBelowTheHighestIdSentIsNotDropped() {
+        streamService.emitNotification(notification(1L, 1L));
+        streamService.emitNotification(notification(3L, 1L));
+
+        // 5 and 4 come from different lanes and arrive out of order after the replay
+        StepVerifier.create(streamService.getNotificationStream(1L, 1L).map(Notification::id))
+                .expectNext(3L)
+                .then(() -> streamService.emitNotification(notification(5L, 1L)))
+                .expectNext(5L)
+                .then(() -> streamService.emitNotification(notification(4L, 1L)))
+                .expectNext(4L)
+                .then(() -> streamService.emitNotification(notification(2L, 1L)))
+                .expectNext(2L)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testResumeWithTheRelayMergesTheDatabaseGapWithTheBuffer() {
+        NotificationStreamService relayed = new NotificationStreamService(
+                new NotificationReplayBuffer(3, 100, meterRegistry), repository, meterRegistry, true);
+        // The buffer only saw this instance's notifications; 3 was processed elsewhere while the user was away
+        relayed.emitNotification(notification(1L, 1L));
+        relayed.emitNotification(notification(2L, 1L));
+        relayed.emitNotification(notification(4L, 1L));
+        when(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 1L)).thenReturn(Flux.just(
+                notification(2L, 1L), notification(3L, 1L)));
+
+        StepVerifier.create(relayed.getNotificationStream(1L, 1L).take(3).map(Notification::id))
+                .expectNext(2L, 3L, 4L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(meterRegistry.get("notification.sse.resumes").tag("source", "database").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testResumeWhileTheRelayIsAttachedIsServedFromTheBuffer() {
+        NotificationStreamService relayed = new NotificationStreamService(
+                new NotificationReplayBuffer(3, 100, meterRegistry), repository, meterRegistry, true);
+        // Recorded before the relay attached: the ring is started over
+        relayed.emitNotification(notification(1L, 1L));
+        relayed.relayAttached(1L);
+        relayed.emitNotification(notification(2L, 1L));
+        relayed.emitNotification(notification(3L, 1L));
+
+        StepVerifier.create(relayed.getNotificationStream(1L, 2L).take(1).map(Notification::id))
+                .expectNext(3L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(repository, never()).findByUserIdAndIdGreaterThanOrderByIdAsc(any(), any());
+
+        // Older than what was recorded since the relay attached
+        when(repository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 1L)).thenReturn(Flux.just(
+                notification(2L, 1L), notification(3L, 1L)));
+        StepVerifier.create(relayed.getNotificationStream(1L, 1L).take(2).map(Notification::id))
+                .expectNext(2L, 3L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static Notification notification(Long id, Long userId) {
+        return Notification.create(userId, "title", "message", NotificationType.BOOKING_CONFIRMED, NotificationChannel.IN_APP)
+                .withId(id);
+    }
+}